@@ -0,0 +1,542 @@
+package currencyconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arbitrage and best-route analysis over the cross-rate graph. Currencies are nodes and
+ * every quoted rate is an edge weighted {@code -ln(rate)}, so a cycle whose rates multiply
+ * to more than one is a negative cycle. Edges come from the snapshot's USD legs
+ * ({@link #update}) and from direct pair quotes of other sources ({@link #setRate}).
+ *
+ * Node potentials from the last clean check are kept between checks. A rate that got
+ * worse cannot close a cycle, so after a few rates change the SPFA re-check starts only
+ * from the edges that got cheaper and touches only the nodes they improve. While the
+ * potentials are clean, best routes are a Dijkstra search over reduced costs (Johnson's
+ * reweighting). All methods synchronize on the detector.
+ */
+public final class ArbitrageDetector {
+    public static final int MAX_CYCLES = 8;
+    // Route length cap while the graph has cycles, when "best" would otherwise be unbounded
+    public static final int MAX_ROUTE_LEGS = 4;
+
+    /** A profitable cycle; {@code codes} starts and ends with the same currency. */
+    public static final class Cycle {
+        private final List<String> codes;
+        private final double profit;
+
+        Cycle(List<String> codes, double profit) {
+            this.codes = codes;
+            this.profit = profit;
+        }
+
+        public List<String> codes() {
+            return codes;
+        }
+
+        // Fractional gain of going once around, e.g. 0.001 for 0.1%
+        public double profit() {
+            return profit;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" -> ", codes) + " (+" + profit + ")";
+        }
+    }
+
+    /** Cheapest chain of conversions between two currencies. */
+    public static final class Route {
+        private final List<String> codes;
+        private final double rate;
+
+        Route(List<String> codes, double rate) {
+            this.codes = codes;
+            this.rate = rate;
+        }
+
+        public List<String> codes() {
+            return codes;
+        }
+
+        // Units of the last currency per unit of the first
+        public double rate() {
+            return rate;
+        }
+    }
+
+    private final double epsilon;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] codes = new String[16];
+    private int nodeCount;
+
+    // Edges, and per node the indexes of its outgoing edges
+    private final Map<Long, Integer> edgeIndex = new HashMap<>();
+    private int[] edgeFrom = new int[64];
+    private int[] edgeTo = new int[64];
+    private double[] edgeRate = new double[64];
+    private double[] edgeWeight = new double[64];
+    private boolean[] masked = new boolean[64];
+    private int edgeCount;
+    private int[][] outEdges = new int[16][];
+    private int[] outDegree = new int[16];
+
+    // Feasible while clean: potential[to] <= potential[from] + weight + epsilon for every edge
+    private double[] potential = new double[16];
+    private boolean clean = true;
+    private boolean[] seeded = new boolean[16];
+    private int[] seeds = new int[16];
+    private int seedCount;
+
+    // SPFA scratch
+    private int[] parentEdge = new int[16];
+    private boolean[] queued = new boolean[16];
+    private int[] queue = new int[16];
+    private int[] walkStamp = new int[16];
+    private int stamp;
+
+    private List<Cycle> cycles = Collections.emptyList();
+    private long lastCheckNanos;
+    private long lastRelaxations;
+    private boolean lastCheckIncremental;
+
+    public ArbitrageDetector() {
+        this(1e-9);
+    }
+
+    // Cycles gaining less than minProfit per lap are treated as rounding noise
+    public ArbitrageDetector(double minProfit) {
+        this.epsilon = Math.log1p(minProfit);
+    }
+
+    /** Sets the snapshot's legs: USD to each currency at its rate, and back at the inverse. */
+    public synchronized void update(ConversionEngine engine) {
+        for (int id = 0; id < engine.size(); id++) {
+            String code = engine.code(id);
+            if (!"USD".equals(code)) {
+                double rate = engine.rate(id);
+                setRate("USD", code, rate);
+                setRate(code, "USD", 1 / rate);
+            }
+        }
+    }
+
+    /** Adds or replaces the quote for one direction of a pair. */
+    public synchronized void setRate(String fromCode, String toCode, double rate) {
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Rate for " + fromCode + "/" + toCode + " must be positive");
+        }
+        if (fromCode.equals(toCode)) {
+            throw new IllegalArgumentException("Quote needs two different currencies: " + fromCode);
+        }
+        int from = node(fromCode);
+        int to = node(toCode);
+        double weight = -Math.log(rate);
+        Integer existing = edgeIndex.get(((long) from << 32) | to);
+        if (existing == null) {
+            addEdge(from, to, rate, weight);
+            seed(from);
+        } else {
+            int edge = existing;
+            if (weight < edgeWeight[edge]) {
+                seed(from);
+            }
+            edgeRate[edge] = rate;
+            edgeWeight[edge] = weight;
+        }
+    }
+
+    private int node(String code) {
+        Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        if (nodeCount == codes.length) {
+            int capacity = nodeCount * 2;
+            codes = Arrays.copyOf(codes, capacity);
+            outEdges = Arrays.copyOf(outEdges, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            potential = Arrays.copyOf(potential, capacity);
+            seeded = Arrays.copyOf(seeded, capacity);
+            seeds = Arrays.copyOf(seeds, capacity);
+            parentEdge = Arrays.copyOf(parentEdge, capacity);
+            queued = Arrays.copyOf(queued, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+            walkStamp = Arrays.copyOf(walkStamp, capacity);
+        }
+        // A new node has no incoming edges yet, so potential 0 keeps the rest feasible
+        codes[nodeCount] = code;
+        outEdges[nodeCount] = new int[4];
+        ids.put(code, nodeCount);
+        return nodeCount++;
+    }
+
+    private void addEdge(int from, int to, double rate, double weight) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeRate = Arrays.copyOf(edgeRate, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            masked = Arrays.copyOf(masked, capacity);
+        }
+        int edge = edgeCount++;
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeRate[edge] = rate;
+        edgeWeight[edge] = weight;
+        edgeIndex.put(((long) from << 32) | to, edge);
+        if (outDegree[from] == outEdges[from].length) {
+            outEdges[from] = Arrays.copyOf(outEdges[from], outDegree[from] * 2);
+        }
+        outEdges[from][outDegree[from]++] = edge;
+    }
+
+    private void seed(int node) {
+        if (!seeded[node]) {
+            seeded[node] = true;
+            seeds[seedCount++] = node;
+        }
+    }
+
+    /**
+     * Checks for profitable cycles. Incremental when the previous check found none: only
+     * nodes with a cheaper outgoing edge since then are re-relaxed. Otherwise, or once a
+     * cycle is found, it is a full Bellman-Ford from a virtual source; each further cycle
+     * (up to {@link #MAX_CYCLES}) is found with one edge of the previous ones masked.
+     */
+    public synchronized List<Cycle> check() {
+        long started = System.nanoTime();
+        lastRelaxations = 0;
+        lastCheckIncremental = clean;
+        List<Cycle> found = new ArrayList<>();
+        int cycleNode;
+        if (clean) {
+            cycleNode = relax();
+        } else {
+            cycleNode = relaxFromScratch();
+        }
+        while (cycleNode >= 0) {
+            Cycle cycle = extractCycle(cycleNode);
+            if (cycle == null) {
+                break;
+            }
+            found.add(cycle);
+            if (found.size() == MAX_CYCLES) {
+                break;
+            }
+            cycleNode = relaxFromScratch();
+        }
+        Arrays.fill(masked, 0, edgeCount, false);
+        clean = found.isEmpty();
+        cycles = Collections.unmodifiableList(found);
+        lastCheckNanos = System.nanoTime() - started;
+        return cycles;
+    }
+
+    private int relaxFromScratch() {
+        for (int node = 0; node < nodeCount; node++) {
+            potential[node] = 0;
+            seed(node);
+        }
+        return relax();
+    }
+
+    // SPFA from the seeded nodes; returns a node on a negative cycle, or -1 once feasible
+    private int relax() {
+        int head = 0;
+        int size = 0;
+        int capacity = queue.length;
+        Arrays.fill(parentEdge, 0, nodeCount, -1);
+        for (int i = 0; i < seedCount; i++) {
+            int node = seeds[i];
+            seeded[node] = false;
+            queued[node] = true;
+            queue[(head + size++) % capacity] = node;
+        }
+        seedCount = 0;
+
+        int found = -1;
+        int sinceWalk = 0;
+        while (size > 0 && found < 0) {
+            int u = queue[head];
+            head = (head + 1) % capacity;
+            size--;
+            queued[u] = false;
+            double base = potential[u];
+            int[] out = outEdges[u];
+            for (int i = 0; i < outDegree[u]; i++) {
+                int edge = out[i];
+                if (masked[edge]) {
+                    continue;
+                }
+                int v = edgeTo[edge];
+                double candidate = base + edgeWeight[edge];
+                if (candidate < potential[v] - epsilon) {
+                    lastRelaxations++;
+                    potential[v] = candidate;
+                    parentEdge[v] = edge;
+                    // Any cycle among parent edges is a negative one; looking every n
+                    // relaxations costs O(1) amortized and catches it within about a lap
+                    if (++sinceWalk >= nodeCount) {
+                        sinceWalk = 0;
+                        found = parentCycleNode();
+                        if (found >= 0) {
+                            break;
+                        }
+                    }
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        queue[(head + size++) % capacity] = v;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            queued[queue[(head + i) % capacity]] = false;
+        }
+        return found;
+    }
+
+    // Any node on a cycle of parent edges, or -1; each node is walked at most once
+    private int parentCycleNode() {
+        int firstStamp = stamp + 1;
+        for (int start = 0; start < nodeCount; start++) {
+            if (walkStamp[start] >= firstStamp) {
+                continue;
+            }
+            int walk = ++stamp;
+            int node = start;
+            while (node >= 0 && walkStamp[node] < firstStamp) {
+                walkStamp[node] = walk;
+                node = parentEdge[node] < 0 ? -1 : edgeFrom[parentEdge[node]];
+            }
+            if (node >= 0 && walkStamp[node] == walk) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    // Follows parent edges round the cycle through node, masking its closing edge for the next search
+    private Cycle extractCycle(int node) {
+        List<Integer> edges = new ArrayList<>();
+        int current = node;
+        do {
+            int edge = parentEdge[current];
+            if (edge < 0 || edges.size() > nodeCount) {
+                return null;
+            }
+            edges.add(edge);
+            current = edgeFrom[edge];
+        } while (current != node);
+        Collections.reverse(edges);
+
+        // Start from the lowest code so the same cycle always reads the same way
+        int start = 0;
+        for (int i = 1; i < edges.size(); i++) {
+            if (codes[edgeFrom[edges.get(i)]].compareTo(codes[edgeFrom[edges.get(start)]]) < 0) {
+                start = i;
+            }
+        }
+        List<String> path = new ArrayList<>(edges.size() + 1);
+        double weight = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            int edge = edges.get((start + i) % edges.size());
+            path.add(codes[edgeFrom[edge]]);
+            weight += edgeWeight[edge];
+        }
+        path.add(path.get(0));
+        masked[edges.get(edges.size() - 1)] = true;
+        return new Cycle(Collections.unmodifiableList(path), Math.expm1(-weight));
+    }
+
+    /**
+     * Best chain of quotes from one currency to another, or null when either is unknown or
+     * the target is unreachable. While the last check found cycles, the search is limited
+     * to {@link #MAX_ROUTE_LEGS} legs.
+     */
+    public synchronized Route bestRoute(String fromCode, String toCode) {
+        Integer from = ids.get(fromCode);
+        Integer to = ids.get(toCode);
+        if (from == null || to == null) {
+            return null;
+        }
+        if (seedCount > 0 || !clean) {
+            check();
+        }
+        int[] parents = clean ? dijkstra(from, to) : boundedBellmanFord(from, to);
+        if (parents == null) {
+            return null;
+        }
+        List<String> path = new ArrayList<>();
+        double rate = 1;
+        for (int i = parents.length - 1; i >= 0; i--) {
+            int edge = parents[i];
+            if (path.isEmpty()) {
+                path.add(codes[edgeFrom[edge]]);
+            }
+            path.add(codes[edgeTo[edge]]);
+            rate *= edgeRate[edge];
+        }
+        if (path.isEmpty()) {
+            path.add(fromCode);
+        }
+        return new Route(Collections.unmodifiableList(path), rate);
+    }
+
+    // Edges of the path, last edge first; reduced costs are non-negative up to epsilon
+    private int[] dijkstra(int from, int to) {
+        double[] distance = new double[nodeCount];
+        int[] via = new int[nodeCount];
+        boolean[] done = new boolean[nodeCount];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(via, -1);
+        distance[from] = 0;
+        // Binary heap with lazy deletion
+        double[] heapKeys = new double[Math.max(16, edgeCount + 1)];
+        int[] heapNodes = new int[heapKeys.length];
+        int heapSize = 0;
+        heapKeys[0] = 0;
+        heapNodes[heapSize++] = from;
+        while (heapSize > 0) {
+            int u = heapNodes[0];
+            double key = heapKeys[0];
+            heapSize--;
+            siftDown(heapKeys, heapNodes, heapSize, heapKeys[heapSize], heapNodes[heapSize]);
+            if (done[u] || key > distance[u]) {
+                continue;
+            }
+            done[u] = true;
+            if (u == to) {
+                break;
+            }
+            for (int i = 0; i < outDegree[u]; i++) {
+                int edge = outEdges[u][i];
+                int v = edgeTo[edge];
+                double reduced = Math.max(0, edgeWeight[edge] + potential[u] - potential[v]);
+                double candidate = distance[u] + reduced;
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    via[v] = edge;
+                    if (heapSize == heapKeys.length) {
+                        heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                        heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                    }
+                    siftUp(heapKeys, heapNodes, heapSize++, candidate, v);
+                }
+            }
+        }
+        return distance[to] == Double.POSITIVE_INFINITY ? null : pathTo(via, from, to);
+    }
+
+    private static void siftUp(double[] keys, int[] nodes, int index, double key, int node) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[index] = keys[parent];
+            nodes[index] = nodes[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        nodes[index] = node;
+    }
+
+    private static void siftDown(double[] keys, int[] nodes, int size, double key, int node) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= key) {
+                break;
+            }
+            keys[index] = keys[child];
+            nodes[index] = nodes[child];
+            index = child;
+        }
+        if (size > 0) {
+            keys[index] = key;
+            nodes[index] = node;
+        }
+    }
+
+    private int[] pathTo(int[] via, int from, int to) {
+        int[] path = new int[nodeCount];
+        int length = 0;
+        for (int node = to; node != from; node = edgeFrom[via[node]]) {
+            path[length++] = via[node];
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    // Best walk of at most MAX_ROUTE_LEGS quotes, one Bellman-Ford round per leg
+    private int[] boundedBellmanFord(int from, int to) {
+        double[][] distance = new double[MAX_ROUTE_LEGS + 1][nodeCount];
+        int[][] via = new int[MAX_ROUTE_LEGS + 1][nodeCount];
+        for (double[] row : distance) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        distance[0][from] = 0;
+        int bestLegs = from == to ? 0 : -1;
+        for (int legs = 1; legs <= MAX_ROUTE_LEGS; legs++) {
+            for (int edge = 0; edge < edgeCount; edge++) {
+                double candidate = distance[legs - 1][edgeFrom[edge]] + edgeWeight[edge];
+                if (candidate < distance[legs][edgeTo[edge]]) {
+                    distance[legs][edgeTo[edge]] = candidate;
+                    via[legs][edgeTo[edge]] = edge;
+                }
+            }
+            if (distance[legs][to] < (bestLegs < 0 ? Double.POSITIVE_INFINITY : distance[bestLegs][to])) {
+                bestLegs = legs;
+            }
+        }
+        if (bestLegs < 0) {
+            return null;
+        }
+        int[] path = new int[bestLegs];
+        int node = to;
+        for (int legs = bestLegs; legs > 0; legs--) {
+            path[bestLegs - legs] = via[legs][node];
+            node = edgeFrom[via[legs][node]];
+        }
+        return path;
+    }
+
+    // Cycles found by the last check
+    public synchronized List<Cycle> cycles() {
+        return cycles;
+    }
+
+    public synchronized int currencyCount() {
+        return nodeCount;
+    }
+
+    public synchronized int quoteCount() {
+        return edgeCount;
+    }
+
+    public synchronized long lastCheckNanos() {
+        return lastCheckNanos;
+    }
+
+    // Potential improvements applied by the last check, its measure of work
+    public synchronized long lastRelaxations() {
+        return lastRelaxations;
+    }
+
+    public synchronized boolean lastCheckIncremental() {
+        return lastCheckIncremental;
+    }
+}
@@ -0,0 +1,92 @@
+package currencyconverter;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Converts whole columns of amounts at once on top of a {@link ConversionEngine}.
+ * The single-pair loops are simple unrolled multiply kernels that HotSpot's superword
+ * pass turns into SIMD code; the mixed-pair path gathers from a flattened cross-rate table.
+ */
+public final class BulkConverter {
+    private final ConversionEngine engine;
+    private final int size;
+    private final double[] flatCrossRates;
+
+    public BulkConverter(ConversionEngine engine) {
+        this.engine = engine;
+        this.size = engine.size();
+        this.flatCrossRates = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                flatCrossRates[from * size + to] = engine.crossRate(from, to);
+            }
+        }
+    }
+
+    public ConversionEngine engine() {
+        return engine;
+    }
+
+    public void convert(double[] amounts, double[] out, int fromId, int toId) {
+        if (out.length < amounts.length) {
+            throw new IllegalArgumentException("Output array is shorter than input");
+        }
+        convert(amounts, 0, out, 0, amounts.length, fromId, toId);
+    }
+
+    public void convert(double[] amounts, int srcOffset, double[] out, int dstOffset, int length,
+            int fromId, int toId) {
+        double rate = engine.crossRate(fromId, toId);
+        int i = 0;
+        int unrolled = length & ~3;
+        for (; i < unrolled; i += 4) {
+            out[dstOffset + i] = amounts[srcOffset + i] * rate;
+            out[dstOffset + i + 1] = amounts[srcOffset + i + 1] * rate;
+            out[dstOffset + i + 2] = amounts[srcOffset + i + 2] * rate;
+            out[dstOffset + i + 3] = amounts[srcOffset + i + 3] * rate;
+        }
+        for (; i < length; i++) {
+            out[dstOffset + i] = amounts[srcOffset + i] * rate;
+        }
+    }
+
+    // In-place variant for callers that do not need the source amounts afterwards
+    public void convertInPlace(double[] amounts, int fromId, int toId) {
+        convert(amounts, 0, amounts, 0, amounts.length, fromId, toId);
+    }
+
+    // Converts amounts.remaining() values; works with heap and direct (off-heap) buffers.
+    // Positions of both buffers are advanced past the converted values.
+    public void convert(DoubleBuffer amounts, DoubleBuffer out, int fromId, int toId) {
+        int length = amounts.remaining();
+        if (out.remaining() < length) {
+            throw new IllegalArgumentException("Output buffer has less room than input");
+        }
+        if (amounts.hasArray() && out.hasArray()) {
+            convert(amounts.array(), amounts.arrayOffset() + amounts.position(),
+                    out.array(), out.arrayOffset() + out.position(), length, fromId, toId);
+        } else {
+            double rate = engine.crossRate(fromId, toId);
+            int src = amounts.position();
+            int dst = out.position();
+            for (int i = 0; i < length; i++) {
+                out.put(dst + i, amounts.get(src + i) * rate);
+            }
+        }
+        amounts.position(amounts.position() + length);
+        out.position(out.position() + length);
+    }
+
+    // Column of (amount, fromId, toId) triples
+    public void convert(double[] amounts, int[] fromIds, int[] toIds, double[] out) {
+        int length = amounts.length;
+        if (fromIds.length < length || toIds.length < length || out.length < length) {
+            throw new IllegalArgumentException("Column lengths do not match");
+        }
+        double[] table = flatCrossRates;
+        int n = size;
+        for (int i = 0; i < length; i++) {
+            out[i] = amounts[i] * table[fromIds[i] * n + toIds[i]];
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package currencyconverter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * UI-free conversion core. Currencies are interned to dense int IDs (their index in the
+ * sorted label list) and all cross rates are precomputed, so {@link #convert} is a single
+ * array load and multiply.
+ *
+ * Snapshots published through a {@link RateStore} are stamped with a version, increasing
+ * with every publish, and each currency carries the version at which its rate last
+ * changed. Standalone snapshots have version 0.
+ */
+public final class ConversionEngine {
+    private final String[] labels;
+    private final String[] codes;
+    private final double[] rates;
+    private final double[][] crossRates;
+    private final Map<String, Integer> idsByLabel;
+    private final Map<String, Integer> idsByCode;
+    private final long version;
+    private final long[] rateVersions;
+
+    public ConversionEngine(Map<String, Double> exchangeRates) {
+        this(sortedLabels(exchangeRates), exchangeRates);
+    }
+
+    private ConversionEngine(String[] labels, Map<String, Double> exchangeRates) {
+        this(labels, ratesOf(labels, exchangeRates));
+    }
+
+    // Labels must already be sorted, as DefaultRates keeps them; the arrays are not copied
+    ConversionEngine(String[] sortedLabels, double[] rates) {
+        for (int i = 1; i < sortedLabels.length; i++) {
+            if (sortedLabels[i - 1].compareTo(sortedLabels[i]) >= 0) {
+                throw new IllegalArgumentException("Labels out of order at " + sortedLabels[i]);
+            }
+        }
+        this.labels = sortedLabels;
+        this.rates = rates;
+        this.version = 0;
+
+        int n = labels.length;
+        codes = new String[n];
+        rateVersions = new long[n];
+        crossRates = new double[n][n];
+        idsByLabel = new HashMap<>(n * 2);
+        idsByCode = new HashMap<>(n * 2);
+
+        for (int id = 0; id < n; id++) {
+            codes[id] = codeOf(labels[id]);
+            idsByLabel.put(labels[id], id);
+            idsByCode.put(codes[id], id);
+        }
+
+        for (int from = 0; from < n; from++) {
+            double[] row = crossRates[from];
+            for (int to = 0; to < n; to++) {
+                row[to] = rates[to] / rates[from];
+            }
+        }
+    }
+
+    // Shares every table with base; only the version stamps differ
+    private ConversionEngine(ConversionEngine base, long version, long[] rateVersions) {
+        this.labels = base.labels;
+        this.codes = base.codes;
+        this.rates = base.rates;
+        this.crossRates = base.crossRates;
+        this.idsByLabel = base.idsByLabel;
+        this.idsByCode = base.idsByCode;
+        this.version = version;
+        this.rateVersions = rateVersions;
+    }
+
+    // Currencies whose rate is bit-for-bit unchanged since previous keep their version
+    ConversionEngine stamp(long version, ConversionEngine previous) {
+        boolean sameIds = previous != null && hasSameCurrencies(previous);
+        long[] versions = new long[labels.length];
+        for (int id = 0; id < labels.length; id++) {
+            int previousId = previous == null ? -1 : sameIds ? id : previous.idOfCode(codes[id]);
+            boolean unchanged = previousId >= 0
+                    && Double.doubleToLongBits(previous.rates[previousId]) == Double.doubleToLongBits(rates[id]);
+            versions[id] = unchanged ? previous.rateVersions[previousId] : version;
+        }
+        return new ConversionEngine(this, version, versions);
+    }
+
+    private static String[] sortedLabels(Map<String, Double> exchangeRates) {
+        String[] labels = exchangeRates.keySet().toArray(new String[0]);
+        Arrays.sort(labels);
+        return labels;
+    }
+
+    private static double[] ratesOf(String[] labels, Map<String, Double> exchangeRates) {
+        double[] rates = new double[labels.length];
+        for (int id = 0; id < labels.length; id++) {
+            rates[id] = exchangeRates.get(labels[id]);
+        }
+        return rates;
+    }
+
+    // "USD (US DOLLARS)" -> "USD"
+    static String codeOf(String label) {
+        int space = label.indexOf(' ');
+        return space < 0 ? label : label.substring(0, space);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public int idOf(String label) {
+        Integer id = idsByLabel.get(label);
+        return id == null ? -1 : id;
+    }
+
+    public int idOfCode(String code) {
+        Integer id = idsByCode.get(code.toUpperCase());
+        return id == null ? -1 : id;
+    }
+
+    public String label(int id) {
+        return labels[id];
+    }
+
+    public String code(int id) {
+        return codes[id];
+    }
+
+    public String[] labels() {
+        return labels.clone();
+    }
+
+    // Units of this currency per 1 USD
+    public double rate(int id) {
+        return rates[id];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // Version of the snapshot that last changed this currency's rate
+    public long rateVersion(int id) {
+        return rateVersions[id];
+    }
+
+    public double crossRate(int fromId, int toId) {
+        return crossRates[fromId][toId];
+    }
+
+    public double convert(double amount, int fromId, int toId) {
+        return amount * crossRates[fromId][toId];
+    }
+
+    public double convert(double amount, String fromLabel, String toLabel) {
+        return convert(amount, idOf(fromLabel), idOf(toLabel));
+    }
+
+    public boolean hasSameCurrencies(ConversionEngine other) {
+        return Arrays.equals(labels, other.labels);
+    }
+
+    // Label -> units per 1 USD, in ID order
+    public Map<String, Double> toRateMap() {
+        Map<String, Double> map = new LinkedHashMap<>(labels.length * 2);
+        for (int id = 0; id < labels.length; id++) {
+            map.put(labels[id], rates[id]);
+        }
+        return map;
+    }
+}
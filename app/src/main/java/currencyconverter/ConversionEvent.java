@@ -0,0 +1,31 @@
+package currencyconverter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One timed operation from {@link Metrics}; costs nothing unless a recording enables it. */
+@Name("currencyconverter.Conversion")
+@Label("Conversion")
+@Category("Currency Converter")
+@StackTrace(false)
+final class ConversionEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    static void emit(String operation, long nanos) {
+        ConversionEvent event = new ConversionEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package currencyconverter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs UI conversions on one background worker instead of the event dispatch thread.
+ * Requests go into named {@link Slot}s: a request submitted while an older one is still
+ * waiting in the same slot replaces it, and one that is superseded while it runs is
+ * dropped instead of posted. Only the newest result of a slot is handed to the EDT.
+ */
+final class ConversionExecutor implements AutoCloseable {
+    /** Work for one request; should poll {@code superseded} between steps and may return null to give up. */
+    interface Task<R> {
+        R compute(BooleanSupplier superseded);
+    }
+
+    private final ExecutorService worker;
+    // Slots with a request waiting; at most one per slot
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+
+    ConversionExecutor() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "conversion-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    <R> Slot<R> slot() {
+        return new Slot<>();
+    }
+
+    private static final class Request<R> {
+        final long generation;
+        final Task<R> task;
+        final Consumer<R> onEdt;
+        final long submittedNanos;
+
+        Request(long generation, Task<R> task, Consumer<R> onEdt, long submittedNanos) {
+            this.generation = generation;
+            this.task = task;
+            this.onEdt = onEdt;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+
+    /** Latest-wins lane for one kind of request, e.g. the converter result. */
+    final class Slot<R> {
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicReference<Request<R>> waiting = new AtomicReference<>();
+
+        private Slot() {
+        }
+
+        // Call on any thread; onEdt receives the result on the EDT if nothing newer came in
+        void submit(Task<R> task, Consumer<R> onEdt) {
+            Request<R> request = new Request<>(generation.incrementAndGet(), task, onEdt, System.nanoTime());
+            submitted.increment();
+            if (waiting.getAndSet(request) != null) {
+                coalesced.increment();
+            } else {
+                queueDepth.incrementAndGet();
+                worker.execute(this::runWaiting);
+            }
+        }
+
+        private boolean isSuperseded(Request<R> request) {
+            return generation.get() != request.generation;
+        }
+
+        private void runWaiting() {
+            Request<R> request = waiting.getAndSet(null);
+            queueDepth.decrementAndGet();
+            R result;
+            try {
+                result = request.task.compute(() -> isSuperseded(request));
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+                return;
+            }
+            if (result == null || isSuperseded(request)) {
+                cancelled.increment();
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                // A newer request may have arrived while this one waited for the EDT
+                if (isSuperseded(request)) {
+                    cancelled.increment();
+                    return;
+                }
+                request.onEdt.accept(result);
+                recordLatency(System.nanoTime() - request.submittedNanos);
+            });
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        completed.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        lastLatencyNanos = nanos;
+    }
+
+    int queueDepth() {
+        return queueDepth.get();
+    }
+
+    long submitted() {
+        return submitted.sum();
+    }
+
+    // Replaced while still waiting to run
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    // Superseded while running or while waiting for the EDT
+    long cancelled() {
+        return cancelled.sum();
+    }
+
+    long completed() {
+        return completed.sum();
+    }
+
+    // Submit to applied on the EDT, for the most recent completed request
+    long lastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    long meanLatencyNanos() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / count;
+    }
+
+    long maxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+}
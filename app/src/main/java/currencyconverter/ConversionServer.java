@@ -0,0 +1,651 @@
+package currencyconverter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless conversion service on the JDK's built-in HTTP server. Every request reads the
+ * current {@link RateStore} snapshot once, and responses are encoded straight into pooled
+ * {@link ResponseBuffer}s. Requests run one per virtual thread where the JDK has them
+ * (21+) and on a fixed pool otherwise.
+ *
+ * <pre>
+ * GET  /convert?amount=100&amp;from=USD&amp;to=EUR[&amp;decimals=2][&amp;at=TIME]
+ * GET  /multi?amount=100&amp;from=USD[&amp;decimals=2][&amp;at=TIME]
+ * GET  /leaderboard
+ * GET  /history?code=EUR[&amp;from=TIME][&amp;to=TIME]
+ * GET  /arbitrage    profitable cycles found by the last check, run on every rate update and quote post
+ * GET  /route?from=EUR&amp;to=PKR
+ * POST /batch        body: one "amount,FROM,TO" per line, response: one result per line
+ * POST /quotes       body: one "FROM/TO=rate" direct quote per line, e.g. from another source
+ * </pre>
+ *
+ * {@code at} prices with the rates in force at that time from the {@link RateHistory}, in
+ * any form {@link RateHistory#parseTimestamp} takes; without a history it is rejected.
+ */
+public class ConversionServer implements AutoCloseable {
+    private static final int MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    // Buffers that grew past this for a huge batch are dropped instead of pooled
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+    private static final int RATE_DECIMALS = 6;
+    private static final String JSON = "application/json";
+    private static final String TEXT = "text/plain; charset=utf-8";
+    private static final long MAX_HISTORY_SPAN = 31L * 86_400_000L;
+    private static final int MAX_QUOTE_BYTES = 1024 * 1024;
+
+    private final RateStore rateStore;
+    private final RateHistory history;
+    private final ArbitrageDetector arbitrage = new ArbitrageDetector();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final ConcurrentLinkedQueue<ResponseBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public ConversionServer(RateStore rateStore, String host, int port) throws IOException {
+        this(rateStore, null, host, port);
+    }
+
+    public ConversionServer(RateStore rateStore, RateHistory history, String host, int port) throws IOException {
+        this.rateStore = rateStore;
+        this.history = history;
+        checkArbitrage(rateStore.current());
+        rateStore.addListener(this::checkArbitrage);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformExecutor();
+
+        // Headers and body go out as separate writes; without TCP_NODELAY every small
+        // response waits out the client's delayed ACK (~40 ms). Read once by the JDK server.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/convert", exchange -> handle(exchange, "GET", JSON, this::convert));
+        server.createContext("/multi", exchange -> handle(exchange, "GET", JSON, this::multi));
+        server.createContext("/leaderboard", exchange -> handle(exchange, "GET", JSON, this::leaderboard));
+        server.createContext("/history", exchange -> handle(exchange, "GET", JSON, this::history));
+        server.createContext("/batch", exchange -> handle(exchange, "POST", TEXT, this::batch));
+        server.createContext("/arbitrage", exchange -> handle(exchange, "GET", JSON, this::arbitrage));
+        server.createContext("/route", exchange -> handle(exchange, "GET", JSON, this::route));
+        server.createContext("/quotes", exchange -> handle(exchange, "POST", JSON, this::quotes));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when running on a JDK that has it
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor() {
+        int threads = Integer.getInteger("currency.server.threads",
+                Runtime.getRuntime().availableProcessors() * 4);
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "conversion-server-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private interface Endpoint {
+        // Writes the response body into out and returns the status code
+        int serve(HttpExchange exchange, Snapshot snapshot, ResponseBuffer out) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String method, String contentType, Endpoint endpoint)
+            throws IOException {
+        ResponseBuffer out = borrow();
+        try {
+            int status;
+            if (!exchange.getRequestMethod().equals(method)) {
+                status = error(out, 405, "Use " + method);
+            } else {
+                try {
+                    status = endpoint.serve(exchange, snapshot(), out);
+                } catch (IllegalArgumentException ex) {
+                    status = error(out, 400, ex.getMessage());
+                } catch (RuntimeException | IOException ex) {
+                    // Endpoints only fill the buffer, so headers are still unsent here: answer
+                    // with a status instead of letting the client see a reset connection
+                    ex.printStackTrace();
+                    status = error(out, 500, "Internal error");
+                }
+            }
+            // Errors are always JSON
+            exchange.getResponseHeaders().set("Content-Type", status == 200 ? contentType : JSON);
+            exchange.sendResponseHeaders(status, out.length());
+            try (OutputStream body = exchange.getResponseBody()) {
+                out.writeTo(body);
+            }
+        } finally {
+            exchange.close();
+            release(out);
+        }
+    }
+
+    private ResponseBuffer borrow() {
+        ResponseBuffer buffer = buffers.poll();
+        return buffer != null ? buffer.clear() : new ResponseBuffer(4096);
+    }
+
+    private void release(ResponseBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffers.offer(buffer);
+        }
+    }
+
+    private static int error(ResponseBuffer out, int status, String message) {
+        out.clear().putAscii("{\"error\":").putQuoted(String.valueOf(message)).put('}');
+        return status;
+    }
+
+    // Per-snapshot lookup tables, rebuilt only after a new snapshot has been published
+    private Snapshot snapshot() {
+        ConversionEngine engine = rateStore.current();
+        Snapshot current = snapshot.get();
+        if (current == null || current.engine != engine) {
+            current = new Snapshot(engine);
+            snapshot.set(current);
+        }
+        return current;
+    }
+
+    private int convert(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        String query = exchange.getRequestURI().getRawQuery();
+        double amount = amountParam(query);
+        int fromId = currencyParam(s.engine, query, "from");
+        int toId = currencyParam(s.engine, query, "to");
+        int decimals = decimalsParam(query);
+
+        double rate;
+        String at = param(query, "at");
+        if (at == null) {
+            rate = s.engine.crossRate(fromId, toId);
+        } else {
+            long timestamp = timeParam(at);
+            rate = history.rateAt(s.engine.code(toId), timestamp) / history.rateAt(s.engine.code(fromId), timestamp);
+            if (Double.isNaN(rate)) {
+                throw new IllegalArgumentException("No rates recorded as of " + decode(at));
+            }
+        }
+        out.putAscii("{\"from\":\"").putAscii(s.engine.code(fromId))
+                .putAscii("\",\"to\":\"").putAscii(s.engine.code(toId))
+                .putAscii("\",\"amount\":").putFixed(amount, decimals)
+                .putAscii(",\"rate\":").putFixed(rate, RATE_DECIMALS)
+                .putAscii(",\"result\":").putFixed(amount * rate, decimals)
+                .put('}');
+        return 200;
+    }
+
+    private int multi(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        String query = exchange.getRequestURI().getRawQuery();
+        double amount = amountParam(query);
+        int decimals = decimalsParam(query);
+        ConversionEngine engine = s.engine;
+        String at = param(query, "at");
+        if (at != null) {
+            engine = history.snapshotAt(timeParam(at));
+            if (engine == null) {
+                throw new IllegalArgumentException("No rates recorded as of " + decode(at));
+            }
+        }
+        int fromId = currencyParam(engine, query, "from");
+
+        out.putAscii("{\"from\":\"").putAscii(engine.code(fromId))
+                .putAscii("\",\"amount\":").putFixed(amount, decimals)
+                .putAscii(",\"results\":{");
+        for (int id = 0; id < engine.size(); id++) {
+            if (id > 0) {
+                out.put(',');
+            }
+            out.putQuoted(engine.code(id)).put(':').putFixed(engine.convert(amount, fromId, id), decimals);
+        }
+        out.putAscii("}}");
+        return 200;
+    }
+
+    private int leaderboard(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        out.put(s.leaderboard());
+        return 200;
+    }
+
+    // Rate changes of one currency, as [millis, rate] pairs; defaults to the last day
+    private int history(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        if (history == null) {
+            throw new IllegalArgumentException("Rate history is not enabled");
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        int id = currencyParam(s.engine, query, "code");
+        String toValue = param(query, "to");
+        String fromValue = param(query, "from");
+        long to = toValue == null ? System.currentTimeMillis() : timeParam(toValue);
+        long from = fromValue == null ? to - 86_400_000L : timeParam(fromValue);
+        if (from > to || to - from > MAX_HISTORY_SPAN) {
+            throw new IllegalArgumentException("from must precede to by at most 31 days");
+        }
+
+        out.putAscii("{\"code\":\"").putAscii(s.engine.code(id)).putAscii("\",\"ticks\":[");
+        int start = out.length();
+        history.scan(s.engine.code(id), from, to, (timestamp, rate) -> {
+            if (out.length() > start) {
+                out.put(',');
+            }
+            out.put('[').putLong(timestamp).put(',').putFixed(rate, RATE_DECIMALS).put(']');
+        });
+        out.putAscii("]}");
+        return 200;
+    }
+
+    // Runs on the publishing thread, so cycles are found as soon as the rates that close them
+    private void checkArbitrage(ConversionEngine engine) {
+        arbitrage.update(engine);
+        arbitrage.check();
+    }
+
+    private int arbitrage(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        List<ArbitrageDetector.Cycle> cycles = arbitrage.cycles();
+        out.putAscii("{\"currencies\":").putLong(arbitrage.currencyCount())
+                .putAscii(",\"quotes\":").putLong(arbitrage.quoteCount())
+                .putAscii(",\"checkMicros\":").putLong(arbitrage.lastCheckNanos() / 1000)
+                .putAscii(",\"cycles\":[");
+        for (int i = 0; i < cycles.size(); i++) {
+            if (i > 0) {
+                out.put(',');
+            }
+            out.putAscii("{\"path\":");
+            putCodes(out, cycles.get(i).codes());
+            out.putAscii(",\"profit\":").putFixed(cycles.get(i).profit(), 8).put('}');
+        }
+        out.putAscii("]}");
+        return 200;
+    }
+
+    private int route(HttpExchange exchange, Snapshot s, ResponseBuffer out) {
+        String query = exchange.getRequestURI().getRawQuery();
+        String from = codeParam(query, "from");
+        String to = codeParam(query, "to");
+        ArbitrageDetector.Route route = arbitrage.bestRoute(from, to);
+        if (route == null) {
+            throw new IllegalArgumentException("No route from " + from + " to " + to);
+        }
+        out.putAscii("{\"path\":");
+        putCodes(out, route.codes());
+        out.putAscii(",\"rate\":").putFixed(route.rate(), RATE_DECIMALS).put('}');
+        return 200;
+    }
+
+    // All lines are validated before any quote is applied
+    private int quotes(HttpExchange exchange, Snapshot s, ResponseBuffer out) throws IOException {
+        ResponseBuffer in = borrow();
+        String body;
+        try {
+            try (InputStream stream = exchange.getRequestBody()) {
+                in.readFrom(stream, MAX_QUOTE_BYTES);
+            }
+            body = new String(in.view().array(), 0, in.length(), StandardCharsets.UTF_8);
+        } finally {
+            release(in);
+        }
+        List<String[]> pairs = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        String[] lines = body.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int slash = line.indexOf('/');
+            int eq = line.indexOf('=');
+            if (slash != 3 || eq != 7) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected FROM/TO=rate");
+            }
+            try {
+                rates.add(Double.parseDouble(line.substring(eq + 1).trim()));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": invalid rate");
+            }
+            pairs.add(new String[] { line.substring(0, 3).toUpperCase(), line.substring(4, 7).toUpperCase() });
+            if (!(rates.get(rates.size() - 1) > 0) || pairs.get(pairs.size() - 1)[0].equals(pairs.get(pairs.size() - 1)[1])) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": rate must be positive between two currencies");
+            }
+        }
+        for (int i = 0; i < pairs.size(); i++) {
+            arbitrage.setRate(pairs.get(i)[0], pairs.get(i)[1], rates.get(i));
+        }
+        out.putAscii("{\"accepted\":").putLong(pairs.size())
+                .putAscii(",\"cycles\":").putLong(arbitrage.check().size()).put('}');
+        return 200;
+    }
+
+    private static void putCodes(ResponseBuffer out, List<String> codes) {
+        out.put('[');
+        for (int i = 0; i < codes.size(); i++) {
+            if (i > 0) {
+                out.put(',');
+            }
+            out.putQuoted(codes.get(i));
+        }
+        out.put(']');
+    }
+
+    // The whole body is converted as one column through BulkConverter
+    private int batch(HttpExchange exchange, Snapshot s, ResponseBuffer out) throws IOException {
+        ResponseBuffer in = borrow();
+        try {
+            try (InputStream body = exchange.getRequestBody()) {
+                in.readFrom(body, MAX_BATCH_BYTES);
+            }
+            int lines = 0;
+            for (int i = 0; i < in.length(); i++) {
+                if (in.get(i) == '\n') {
+                    lines++;
+                }
+            }
+            lines++;
+
+            // Unparseable rows keep IDs of 0 for the bulk pass and are reported as null
+            double[] amounts = new double[lines];
+            int[] fromIds = new int[lines];
+            int[] toIds = new int[lines];
+            boolean[] valid = new boolean[lines];
+            int rows = 0;
+            ByteBuffer view = in.view();
+            int lineStart = 0;
+            for (int i = 0; i <= in.length(); i++) {
+                if (i < in.length() && in.get(i) != '\n') {
+                    continue;
+                }
+                int end = i > lineStart && in.get(i - 1) == '\r' ? i - 1 : i;
+                if (end > lineStart) {
+                    valid[rows] = parseBatchLine(s, in, view, lineStart, end, rows, amounts, fromIds, toIds);
+                    rows++;
+                }
+                lineStart = i + 1;
+            }
+
+            double[] results = new double[lines];
+            s.bulk.convert(amounts, fromIds, toIds, results);
+            for (int row = 0; row < rows; row++) {
+                if (valid[row]) {
+                    out.putFixed(results[row], 2).put('\n');
+                } else {
+                    out.putAscii("null\n");
+                }
+            }
+            return 200;
+        } finally {
+            release(in);
+        }
+    }
+
+    private static boolean parseBatchLine(Snapshot s, ResponseBuffer in, ByteBuffer view, int start, int end,
+                                          int row, double[] amounts, int[] fromIds, int[] toIds) {
+        int firstComma = -1;
+        int secondComma = -1;
+        for (int i = start; i < end && secondComma < 0; i++) {
+            if (in.get(i) == ',') {
+                if (firstComma < 0) {
+                    firstComma = i;
+                } else {
+                    secondComma = i;
+                }
+            }
+        }
+        if (secondComma < 0) {
+            return false;
+        }
+        double amount = LedgerConverter.parseAmount(view, start, firstComma);
+        int fromId = s.lookupCode(in, firstComma + 1, secondComma);
+        int toId = s.lookupCode(in, secondComma + 1, end);
+        if (Double.isNaN(amount) || fromId < 0 || toId < 0) {
+            return false;
+        }
+        amounts[row] = amount;
+        fromIds[row] = fromId;
+        toIds[row] = toId;
+        return true;
+    }
+
+    private static String param(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (end - start > name.length() && query.charAt(start + name.length()) == '='
+                    && query.startsWith(name, start)) {
+                return query.substring(start + name.length() + 1, end);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private long timeParam(String value) {
+        if (history == null) {
+            throw new IllegalArgumentException("Rate history is not enabled");
+        }
+        return RateHistory.parseTimestamp(decode(value));
+    }
+
+    private static double amountParam(String query) {
+        String value = param(query, "amount");
+        if (value == null) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static int currencyParam(ConversionEngine engine, String query, String name) {
+        String code = param(query, name);
+        if (code == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        int id = engine.idOfCode(code);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown currency: " + code);
+        }
+        return id;
+    }
+
+    private static String codeParam(String query, String name) {
+        String code = param(query, name);
+        if (code == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return code.toUpperCase();
+    }
+
+    private static int decimalsParam(String query) {
+        String value = param(query, "decimals");
+        if (value == null) {
+            return 2;
+        }
+        if (value.length() != 1 || value.charAt(0) < '0' || value.charAt(0) > '9') {
+            throw new IllegalArgumentException("decimals must be between 0 and 9");
+        }
+        return value.charAt(0) - '0';
+    }
+
+    private static final class Snapshot {
+        final ConversionEngine engine;
+        final BulkConverter bulk;
+        private final int[] idsByCode = new int[26 * 26 * 26];
+        private volatile byte[] leaderboard;
+
+        Snapshot(ConversionEngine engine) {
+            this.engine = engine;
+            this.bulk = new BulkConverter(engine);
+            for (int id = 0; id < engine.size(); id++) {
+                String code = engine.code(id);
+                if (code.length() == 3) {
+                    int key = LedgerConverter.codeKey(code.charAt(0), code.charAt(1), code.charAt(2));
+                    if (key >= 0) {
+                        idsByCode[key] = id + 1;
+                    }
+                }
+            }
+        }
+
+        int lookupCode(ResponseBuffer in, int start, int end) {
+            int key = 0;
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                int c = in.get(i) & 0xFF;
+                if (c >= 'a' && c <= 'z') {
+                    c -= 32;
+                }
+                if (c >= 'A' && c <= 'Z' && count < 3) {
+                    key = key * 26 + (c - 'A');
+                    count++;
+                } else if (c != ' ' && c != '"') {
+                    return -1;
+                }
+            }
+            return count == 3 ? idsByCode[key] - 1 : -1;
+        }
+
+        // The snapshot is immutable, so its leaderboard is encoded once and then copied out
+        byte[] leaderboard() {
+            byte[] encoded = leaderboard;
+            if (encoded == null) {
+                List<Object[]> rows = LeaderboardTableModel.rows(engine, FastFormat.getDefault());
+                ResponseBuffer out = new ResponseBuffer(rows.size() * 96);
+                out.put('[');
+                for (int i = 0; i < rows.size(); i++) {
+                    Object[] row = rows.get(i);
+                    String label = (String) row[1];
+                    if (i > 0) {
+                        out.put(',');
+                    }
+                    out.putAscii("{\"rank\":").putLong((Integer) row[0])
+                            .putAscii(",\"code\":").putQuoted(ConversionEngine.codeOf(label))
+                            .putAscii(",\"label\":").putQuoted(label)
+                            .putAscii(",\"rate\":").putFixed(engine.rate(engine.idOf(label)), RATE_DECIMALS)
+                            .putAscii(",\"strength\":").putQuoted((String) row[3])
+                            .put('}');
+                }
+                out.put(']');
+                encoded = Arrays.copyOf(out.view().array(), out.length());
+                leaderboard = encoded;
+            }
+            return encoded;
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    public static int run(String[] args) {
+        String host = "127.0.0.1";
+        int port = 8090;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host":
+                        host = args[++i];
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.err.println("Usage: CurrencyConverterApp --server [--host addr] [--port n]");
+            return 2;
+        }
+
+        RateStore rateStore = new RateStore(DefaultRates.engine());
+        RateHistory history;
+        try {
+            history = RateHistory.open(RateHistory.defaultDirectory());
+            if (!history.isWriter()) {
+                System.err.println("Rate history is being recorded by another process; serving it read-only");
+            }
+            history.recordFrom(rateStore);
+        } catch (IOException ex) {
+            System.err.println("Rate history disabled: " + ex.getMessage());
+            history = null;
+        }
+        String source = System.getProperty("currency.rates.source");
+        RateRefresher refresher = null;
+        if (source != null) {
+            refresher = new RateRefresher(RateProvider.fromSpec(source), rateStore);
+            refresher.start(Long.getLong("currency.rates.refresh.ms", 1000));
+        }
+
+        try {
+            ConversionServer server = new ConversionServer(rateStore, history, host, port);
+            RateRefresher startedRefresher = refresher;
+            RateHistory openedHistory = history;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                if (startedRefresher != null) {
+                    startedRefresher.close();
+                }
+                if (openedHistory != null) {
+                    try {
+                        openedHistory.close();
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }));
+            System.out.println("Serving conversions at http://" + host + ":" + server.port() + "/ on "
+                    + (server.usesVirtualThreads() ? "virtual threads" : "a platform thread pool"));
+            return 0;
+        } catch (IOException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,1215 @@
+package currencyconverter;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import javax.imageio.ImageIO;
+
+public class CurrencyConverterApp extends JFrame {
+    // -Dcurrency.startup.fast=false builds every tab, loads the icon and installs metrics
+    // before the window is shown, as a baseline for startup timings
+    private static final boolean FAST_START = !"false".equals(System.getProperty("currency.startup.fast"));
+
+    private JTextField quickField;
+    private JTextField amountField;
+    private JComboBox<String> fromCurrency;
+    private JComboBox<String> toCurrency;
+    private JCheckBox exactMode;
+    private JTextField asOfField;
+    // Set by the opener thread; read by the conversion worker and the EDT
+    private volatile RateHistory rateHistory;
+    private ExactConverter exactConverter;
+    private JTextArea resultArea;
+    private JLabel workerStatus;
+    private ConversionExecutor conversionExecutor;
+    private ConversionExecutor.Slot<ConversionOutcome> previewSlot;
+    private ConversionExecutor.Slot<ConversionOutcome> convertSlot;
+    private ConversionExecutor.Slot<MultiOutcome> multiSlot;
+    private volatile HistoryTableModel historyTableModel;
+    private JTable historyTable;
+    private RateStore rateStore;
+    private RateRefresher rateRefresher;
+    private PairRateCache pairRateCache;
+    private RateEventBus rateBus;
+    // Snapshot the combo boxes were populated from, and the search index over its catalog
+    private ConversionEngine displayedEngine;
+    private CurrencyIndex currencyIndex;
+    private String lastMultiFrom;
+    private double lastMultiAmount;
+    private Set<String> favoritePairs;
+    private MultiConvertTableModel multiConvertModel;
+    private LeaderboardTableModel leaderboardModel;
+    private JLabel[] legendLabels;
+    private FastFormat fastFormat;
+    // Placeholders of tabs not built yet, with what builds them on first selection
+    private final Map<JPanel, Supplier<JPanel>> pendingTabs = new HashMap<>();
+    private boolean firstFramePainted;
+    // EDT only: an archive import is appending to the history store
+    private boolean historyImporting;
+    // Scratch buffer for the formatted conversion result, owned by the conversion worker
+    private final StringBuilder resultBuilder = new StringBuilder(512);
+
+    public CurrencyConverterApp() {
+        fastFormat = FastFormat.getDefault();
+        favoritePairs = ConcurrentHashMap.newKeySet();
+        rateStore = new RateStore(DefaultRates.engine());
+        displayedEngine = rateStore.current();
+        currencyIndex = new CurrencyIndex(displayedEngine);
+        initializePairRateCache();
+        conversionExecutor = new ConversionExecutor();
+        previewSlot = conversionExecutor.slot();
+        convertSlot = conversionExecutor.slot();
+        multiSlot = conversionExecutor.slot();
+        Startup.mark("models");
+        if (!FAST_START) {
+            registerGauges();
+            Metrics.install(!GraphicsEnvironment.isHeadless());
+        }
+        initializeUI();
+        startRateRefresh();
+        openRateHistory();
+        Startup.mark("window shown");
+    }
+
+    // Timed to the first paint; everything not needed for it runs after
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!firstFramePainted) {
+            firstFramePainted = true;
+            Startup.firstFrame();
+            if (Startup.EXIT_AFTER_FIRST_FRAME) {
+                System.exit(0);
+            }
+            if (FAST_START) {
+                SwingUtilities.invokeLater(this::finishStartup);
+            }
+        }
+    }
+
+    // Metrics registration loads JMX and JFR, a few hundred ms that need not delay the window
+    private void finishStartup() {
+        registerGauges();
+        Thread installer = new Thread(() -> Metrics.install(true), "metrics-install");
+        installer.setDaemon(true);
+        installer.start();
+    }
+
+    static Map<String, Double> initializeExchangeRates() {
+        return DefaultRates.map();
+    }
+
+    // Favorites are "USD/EUR" style pairs, e.g. -Dcurrency.favorites=USD/EUR,USD/PKR
+    private void initializePairRateCache() {
+        pairRateCache = new PairRateCache(rateStore,
+                Integer.getInteger("currency.pair.cache.size", 256),
+                Long.getLong("currency.pair.cache.ttl.ms", 60_000), TimeUnit.MILLISECONDS);
+        for (String pair : System.getProperty("currency.favorites", "").split(",")) {
+            String[] codes = pair.trim().split("/");
+            if (codes.length == 2) {
+                favoritePairs.add(codes[0].toUpperCase() + "/" + codes[1].toUpperCase());
+            }
+        }
+        for (String pair : favoritePairs) {
+            String[] codes = pair.split("/");
+            pairRateCache.pin(codes[0], codes[1]);
+            // Favorites also come first among equal search matches
+            currencyIndex.recordUse(displayedEngine.idOfCode(codes[0]));
+            currencyIndex.recordUse(displayedEngine.idOfCode(codes[1]));
+        }
+    }
+
+    private void initializeUI() {
+        setTitle("Currency Converter");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(900, 700);
+        setLocationRelativeTo(null);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 0));
+        mainPanel.setBackground(Color.GRAY);
+
+        mainPanel.add(createHeader(), BorderLayout.NORTH);
+
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.setBackground(Color.GRAY);
+        tabbedPane.setFont(Styles.font(Font.BOLD, 13));
+
+        tabbedPane.addTab("Converter", createConverterPanel());
+        addTab(tabbedPane, "Multi-Convert", this::createMultiConvertPanel);
+        addTab(tabbedPane, "History", this::createHistoryPanel);
+        addTab(tabbedPane, "Leaderboard", this::createLeaderboardPanel);
+        addTab(tabbedPane, "Diagnostics", this::createDiagnosticsPanel);
+        tabbedPane.addChangeListener(e -> buildPendingTab(tabbedPane.getSelectedComponent()));
+        mainPanel.add(tabbedPane, BorderLayout.CENTER);
+        add(mainPanel);
+        setVisible(true);
+    }
+
+    // In fast-start mode the tab is built the first time it is selected
+    private void addTab(JTabbedPane tabbedPane, String title, Supplier<JPanel> factory) {
+        if (!FAST_START) {
+            tabbedPane.addTab(title, factory.get());
+            return;
+        }
+        JPanel placeholder = new JPanel(new BorderLayout());
+        placeholder.setBackground(Color.WHITE);
+        pendingTabs.put(placeholder, factory);
+        tabbedPane.addTab(title, placeholder);
+    }
+
+    private void buildPendingTab(Component selected) {
+        Supplier<JPanel> factory = pendingTabs.remove(selected);
+        if (factory != null) {
+            JPanel placeholder = (JPanel) selected;
+            placeholder.add(factory.get(), BorderLayout.CENTER);
+            placeholder.revalidate();
+        }
+    }
+
+    private JPanel createHeader() {
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(Color.BLACK);
+        if (FAST_START) {
+            loadIconInBackground();
+        } else {
+            setIconImage(new ImageIcon("icon.jpeg").getImage());
+        }
+        header.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        JLabel title = new JLabel("CURRENCY CONVERTER");
+        title.setFont(Styles.font(Font.BOLD, 32));
+        title.setForeground(Color.WHITE);
+
+        SimpleDateFormat sdf = new SimpleDateFormat("EEEE, MMMM dd, yyyy HH:mm");
+        JLabel dateLabel = new JLabel(sdf.format(new Date()));
+        dateLabel.setFont(Styles.font(Font.PLAIN, 12));
+        dateLabel.setForeground(Color.LIGHT_GRAY);
+
+        JPanel textPanel = new JPanel(new BorderLayout(0, 5));
+        textPanel.setOpaque(false);
+        textPanel.add(title, BorderLayout.NORTH);
+        textPanel.add(dateLabel, BorderLayout.SOUTH);
+
+        header.add(textPanel, BorderLayout.WEST);
+        return header;
+    }
+
+    // Decoding the JPEG takes ~100 ms; the window shows without an icon until it is ready
+    private void loadIconInBackground() {
+        Thread loader = new Thread(() -> {
+            try {
+                BufferedImage icon = ImageIO.read(new File("icon.jpeg"));
+                if (icon != null) {
+                    SwingUtilities.invokeLater(() -> setIconImage(icon));
+                }
+            } catch (IOException ex) {
+                // No icon file: the window keeps the default icon
+            }
+        }, "icon-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setFont(Styles.font(Font.BOLD, 14));
+        button.setBackground(Color.BLACK);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorder(new EmptyBorder(10, 20, 10, 20));
+        button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        button.setContentAreaFilled(false);
+        button.setOpaque(true);
+
+        button.addMouseListener(new MouseAdapter() {
+            public void mouseEntered(MouseEvent evt) {
+                button.setBackground(Styles.BUTTON_HOVER);
+            }
+
+            public void mouseExited(MouseEvent evt) {
+                button.setBackground(Color.BLACK);
+            }
+
+            public void mousePressed(MouseEvent evt) {
+                button.setBackground(Styles.BUTTON_PRESSED);
+            }
+
+            public void mouseReleased(MouseEvent evt) {
+                button.setBackground(Styles.BUTTON_HOVER);
+            }
+        });
+
+        return button;
+    }
+
+    private JPanel createConverterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        JPanel inputPanel = new JPanel(new GridBagLayout());
+        inputPanel.setBackground(Color.WHITE);
+        inputPanel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.BLACK, 2),
+                new EmptyBorder(20, 20, 20, 20)));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(10, 10, 10, 10);
+
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        JLabel quickLabel = new JLabel("Quick:");
+        quickLabel.setFont(Styles.font(Font.BOLD, 16));
+        inputPanel.add(quickLabel, gbc);
+
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        quickField = new JTextField();
+        quickField.setFont(Styles.font(Font.PLAIN, 16));
+        quickField.setToolTipText("Type e.g. 250 usd to pkr and press Enter");
+        quickField.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.BLACK, 1),
+                new EmptyBorder(8, 10, 8, 10)));
+        inputPanel.add(quickField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        gbc.weightx = 0;
+        JLabel amountLabel = new JLabel("Amount:");
+        amountLabel.setFont(Styles.font(Font.BOLD, 16));
+        inputPanel.add(amountLabel, gbc);
+
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        amountField = new JTextField("100");
+        amountField.setFont(Styles.font(Font.PLAIN, 16));
+        amountField.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.BLACK, 1),
+                new EmptyBorder(8, 10, 8, 10)));
+        inputPanel.add(amountField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        JLabel fromLabel = new JLabel("From:");
+        fromLabel.setFont(Styles.font(Font.BOLD, 14));
+        inputPanel.add(fromLabel, gbc);
+
+        gbc.gridx = 1;
+        String[] currencies = displayedEngine.labels();
+        fromCurrency = new JComboBox<>(currencies);
+        fromCurrency.setFont(Styles.font(Font.PLAIN, 14));
+        fromCurrency.setBackground(Color.WHITE);
+        fromCurrency.setKeySelectionManager(currencyIndex.typeAhead());
+        inputPanel.add(fromCurrency, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.gridwidth = 2;
+        JButton swapButton = createStyledButton("SWAP");
+        swapButton.setFont(Styles.font(Font.BOLD, 16));
+        swapButton.addActionListener(e -> swapCurrencies());
+        inputPanel.add(swapButton, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 1;
+        JLabel toLabel = new JLabel("To:");
+        toLabel.setFont(Styles.font(Font.BOLD, 14));
+        inputPanel.add(toLabel, gbc);
+
+        gbc.gridx = 1;
+        toCurrency = new JComboBox<>(currencies);
+        toCurrency.setFont(Styles.font(Font.PLAIN, 14));
+        toCurrency.setBackground(Color.WHITE);
+        toCurrency.setKeySelectionManager(currencyIndex.typeAhead());
+        toCurrency.setSelectedIndex(1);
+        inputPanel.add(toCurrency, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        JLabel asOfLabel = new JLabel("As of:");
+        asOfLabel.setFont(Styles.font(Font.BOLD, 14));
+        inputPanel.add(asOfLabel, gbc);
+
+        gbc.gridx = 1;
+        asOfField = new JTextField();
+        asOfField.setFont(Styles.font(Font.PLAIN, 14));
+        asOfField.setToolTipText("Blank for live rates, or a date / date-time such as 2026-10-17 09:30");
+        asOfField.setEnabled(rateHistory != null);
+        inputPanel.add(asOfField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.gridwidth = 2;
+        exactMode = new JCheckBox("Exact (ISO minor units, " + exactRounding() + ")");
+        exactMode.setFont(Styles.font(Font.PLAIN, 14));
+        exactMode.setBackground(Color.WHITE);
+        inputPanel.add(exactMode, gbc);
+
+        gbc.gridy = 7;
+        JButton convertButton = createStyledButton("CONVERT");
+        convertButton.setFont(Styles.font(Font.BOLD, 16));
+        convertButton.addActionListener(e -> performConversion(true));
+        inputPanel.add(convertButton, gbc);
+
+        panel.add(inputPanel, BorderLayout.NORTH);
+
+        resultArea = new JTextArea();
+        resultArea.setEditable(false);
+        resultArea.setFont(Styles.font(Font.PLAIN, 14));
+        resultArea.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.BLACK, 2),
+                new EmptyBorder(15, 15, 15, 15)));
+        resultArea.setBackground(Color.WHITE);
+
+        JScrollPane scrollPane = new JScrollPane(resultArea);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        workerStatus = new JLabel(" ");
+        workerStatus.setFont(Styles.font(Font.PLAIN, 11));
+        workerStatus.setForeground(Color.GRAY);
+        panel.add(workerStatus, BorderLayout.SOUTH);
+
+        // Preview as the user types; bursts collapse to the latest input on the worker
+        amountField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                performConversion(false);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                performConversion(false);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                performConversion(false);
+            }
+        });
+        // Quick input fills the fields as it resolves, which previews; Enter converts
+        quickField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyQuickInput();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyQuickInput();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyQuickInput();
+            }
+        });
+        quickField.addActionListener(e -> {
+            if (applyQuickInput()) {
+                performConversion(true);
+            }
+        });
+        fromCurrency.addActionListener(e -> performConversion(false));
+        toCurrency.addActionListener(e -> performConversion(false));
+        exactMode.addActionListener(e -> performConversion(false));
+
+        return panel;
+    }
+
+    private JPanel createMultiConvertPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        topPanel.setBackground(Color.WHITE);
+
+        JLabel label = new JLabel("Convert to multiple currencies:");
+        label.setFont(Styles.font(Font.BOLD, 14));
+        topPanel.add(label);
+
+        JButton multiConvertBtn = createStyledButton("CONVERT ALL");
+        multiConvertBtn.addActionListener(e -> performMultiConversion());
+        topPanel.add(multiConvertBtn);
+
+        panel.add(topPanel, BorderLayout.NORTH);
+
+        // Rows are rendered on demand by JTable with one shared renderer per column
+        multiConvertModel = new MultiConvertTableModel();
+        JTable multiConvertTable = new JTable(multiConvertModel);
+        multiConvertTable.setRowHeight(40);
+        multiConvertTable.setShowGrid(true);
+        multiConvertTable.setGridColor(Color.BLACK);
+        multiConvertTable.setBackground(Color.WHITE);
+        multiConvertTable.getTableHeader().setFont(Styles.font(Font.BOLD, 13));
+
+        Font currencyFont = Styles.font(Font.BOLD, 16);
+        DefaultTableCellRenderer currencyRenderer = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                    boolean isSelected, boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                setFont(currencyFont);
+                return this;
+            }
+        };
+        currencyRenderer.setBorder(new EmptyBorder(0, 10, 0, 10));
+
+        Font amountFont = Styles.font(Font.PLAIN, 14);
+        DefaultTableCellRenderer amountRenderer = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                    boolean isSelected, boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                setFont(amountFont);
+                return this;
+            }
+
+            private final StringBuilder text = new StringBuilder(32);
+
+            @Override
+            protected void setValue(Object value) {
+                text.setLength(0);
+                if (value instanceof Double) {
+                    fastFormat.appendAmount(text, (Double) value);
+                }
+                setText(text.toString());
+            }
+        };
+        amountRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+
+        multiConvertTable.getColumnModel().getColumn(MultiConvertTableModel.CURRENCY_COLUMN)
+                .setCellRenderer(currencyRenderer);
+        multiConvertTable.getColumnModel().getColumn(MultiConvertTableModel.AMOUNT_COLUMN)
+                .setCellRenderer(amountRenderer);
+
+        JScrollPane scrollPane = new JScrollPane(multiConvertTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel createHistoryPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        historyTable = new JTable(historyModel());
+        historyTable.setFont(Styles.font(Font.PLAIN, 12));
+        historyTable.setRowHeight(25);
+        historyTable.getTableHeader().setFont(Styles.font(Font.BOLD, 12));
+
+        JScrollPane scrollPane = new JScrollPane(historyTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(Color.WHITE);
+
+        JButton exportButton = createStyledButton("EXPORT");
+        exportButton.addActionListener(e -> exportHistory());
+        buttonPanel.add(exportButton);
+
+        JButton importButton = createStyledButton("IMPORT");
+        importButton.addActionListener(e -> importHistory());
+        buttonPanel.add(importButton);
+
+        JButton clearButton = createStyledButton("CLEAR HISTORY");
+        clearButton.addActionListener(e -> clearHistory());
+        buttonPanel.add(clearButton);
+
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        topPanel.setBackground(Color.WHITE);
+        JCheckBox collect = new JCheckBox("Collect metrics", Metrics.enabled());
+        collect.setFont(Styles.font(Font.PLAIN, 13));
+        collect.setBackground(Color.WHITE);
+        collect.addActionListener(e -> Metrics.instance().setEnabled(collect.isSelected()));
+        topPanel.add(collect);
+        JButton resetButton = createStyledButton("RESET");
+        resetButton.addActionListener(e -> Metrics.instance().reset());
+        topPanel.add(resetButton);
+        panel.add(topPanel, BorderLayout.NORTH);
+
+        DefaultTableModel timerModel = new DefaultTableModel(new String[]{
+                "Operation", "Calls", "Mean µs", "p50 µs", "p99 µs", "p99.9 µs", "Max µs", "Bytes/call"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable timerTable = new JTable(timerModel);
+        timerTable.setRowHeight(25);
+        timerTable.getTableHeader().setFont(Styles.font(Font.BOLD, 12));
+        JScrollPane timerScroll = new JScrollPane(timerTable);
+        timerScroll.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        timerScroll.setPreferredSize(new Dimension(0, 200));
+        panel.add(timerScroll, BorderLayout.CENTER);
+
+        JTextArea details = new JTextArea(12, 40);
+        details.setEditable(false);
+        details.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane detailScroll = new JScrollPane(details);
+        detailScroll.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        panel.add(detailScroll, BorderLayout.SOUTH);
+
+        // Polled once a second, and only while the tab is on screen
+        new javax.swing.Timer(1000, e -> {
+            if (panel.isShowing()) {
+                refreshDiagnostics(timerModel, details);
+            }
+        }).start();
+        return panel;
+    }
+
+    private void refreshDiagnostics(DefaultTableModel timerModel, JTextArea details) {
+        Metrics metrics = Metrics.instance();
+        List<Metrics.TimerStats> timers = metrics.getTimers();
+        timerModel.setRowCount(timers.size());
+        for (int row = 0; row < timers.size(); row++) {
+            Metrics.TimerStats stats = timers.get(row);
+            timerModel.setValueAt(stats.getName(), row, 0);
+            timerModel.setValueAt(stats.getCalls(), row, 1);
+            timerModel.setValueAt(micros(stats.getMeanMicros()), row, 2);
+            timerModel.setValueAt(micros(stats.getP50Micros()), row, 3);
+            timerModel.setValueAt(micros(stats.getP99Micros()), row, 4);
+            timerModel.setValueAt(micros(stats.getP999Micros()), row, 5);
+            timerModel.setValueAt(micros(stats.getMaxMicros()), row, 6);
+            timerModel.setValueAt(stats.getAllocatedBytesPerCall(), row, 7);
+        }
+
+        StringBuilder text = new StringBuilder(1024);
+        long firstFrame = Startup.firstFrameMillis();
+        if (firstFrame >= 0) {
+            text.append("Startup\n  time to first frame ").append(firstFrame).append(" ms\n\n");
+        }
+        text.append("Gauges\n");
+        for (Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+            text.append("  ").append(gauge.getKey()).append(" = ").append(gauge.getValue()).append('\n');
+        }
+        text.append("\nTop pairs\n");
+        for (Map.Entry<String, Long> pair : metrics.getPairCounts().entrySet()) {
+            text.append("  ").append(pair.getKey()).append("  ").append(pair.getValue()).append('\n');
+        }
+        details.setText(text.toString());
+    }
+
+    private String micros(double value) {
+        return fastFormat.appendFixed(new StringBuilder(16), value, 1).toString();
+    }
+
+    // -1 while live rates are off
+    private long rateBusStat(String name, ToLongFunction<RateEventBus.Subscription> stat) {
+        RateEventBus.Subscription subscription = rateBus == null ? null : rateBus.subscription(name);
+        return subscription == null ? -1 : stat.applyAsLong(subscription);
+    }
+
+    // Values read by the Diagnostics tab and the MXBean; -1 where there is nothing to report
+    private void registerGauges() {
+        Metrics.gauge("rateRefreshAgeMillis", () -> {
+            long last = rateRefresher == null ? 0 : rateRefresher.lastRefreshMillis();
+            return last == 0 ? -1 : System.currentTimeMillis() - last;
+        });
+        Metrics.gauge("historyRows", () -> {
+            HistoryTableModel model = historyTableModel;
+            return model == null ? -1 : model.store().size();
+        });
+        Metrics.gauge("startupFirstFrameMillis", Startup::firstFrameMillis);
+        Metrics.gauge("rateHistorySegments", () -> rateHistory == null ? -1 : rateHistory.segmentCount());
+        Metrics.gauge("pairCacheHitPercent", () -> Math.round(pairRateCache.hitRatio() * 100));
+        Metrics.gauge("workerQueueDepth", conversionExecutor::queueDepth);
+        Metrics.gauge("workerSuperseded", () -> conversionExecutor.coalesced() + conversionExecutor.cancelled());
+        Metrics.gauge("workerMeanLatencyMicros", () -> conversionExecutor.meanLatencyNanos() / 1000);
+        Metrics.gauge("workerMaxLatencyMicros", () -> conversionExecutor.maxLatencyNanos() / 1000);
+        Metrics.gauge("rateBusPublished", () -> rateBus == null ? 0 : rateBus.published());
+        for (String tab : new String[] { "converter", "multiConvert", "leaderboard" }) {
+            String prefix = "rateBus" + Character.toUpperCase(tab.charAt(0)) + tab.substring(1);
+            Metrics.gauge(prefix + "Delivered", () -> rateBusStat(tab, RateEventBus.Subscription::delivered));
+            Metrics.gauge(prefix + "Conflated", () -> rateBusStat(tab, RateEventBus.Subscription::conflated));
+            Metrics.gauge(prefix + "BusyFrames", () -> rateBusStat(tab, RateEventBus.Subscription::busyFrames));
+            Metrics.gauge(prefix + "MaxLagMicros", () -> rateBusStat(tab, subscription -> subscription.maxLagNanos() / 1000));
+        }
+    }
+
+    // Opened on first use, by the first recorded conversion or the History tab
+    private HistoryTableModel historyModel() {
+        if (historyTableModel == null) {
+            historyTableModel = new HistoryTableModel(openHistoryStore(), displayedEngine, fastFormat);
+        }
+        return historyTableModel;
+    }
+
+    // Location and retention cap can be overridden with -Dcurrency.history.file / .max
+    private HistoryStore openHistoryStore() {
+        Path path = HistoryStore.defaultPath();
+        int maxRecords = HistoryStore.defaultMaxRecords();
+        try {
+            return HistoryStore.open(path, maxRecords);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            try {
+                Path fallback = Files.createTempFile("currency-history", ".bin");
+                fallback.toFile().deleteOnExit();
+                return HistoryStore.open(fallback, maxRecords);
+            } catch (IOException fallbackEx) {
+                throw new UncheckedIOException(fallbackEx);
+            }
+        }
+    }
+
+    private void clearHistory() {
+        if (historyImporting) {
+            JOptionPane.showMessageDialog(this, "Wait for the import to finish before clearing history",
+                    "Clear History", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        try {
+            historyModel().clear();
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not clear history: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Store reads take the store's own lock, so the export runs beside new conversions
+    private void exportHistory() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("history.cca"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+        HistoryStore store = historyModel().store();
+        Thread exporter = new Thread(() -> {
+            String message;
+            int type = JOptionPane.INFORMATION_MESSAGE;
+            try {
+                long rows = HistoryArchive.export(store, target, true);
+                message = "Exported " + rows + " conversions to " + target;
+            } catch (IOException | RuntimeException ex) {
+                message = "Could not export history: " + ex.getMessage();
+                type = JOptionPane.ERROR_MESSAGE;
+            }
+            String text = message;
+            int messageType = type;
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, text, "Export", messageType));
+        }, "history-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    // Appends on a background thread; the store only grows meanwhile, as clearing waits for
+    // the import, so rows the table has been told about stay readable until the reload
+    private void importHistory() {
+        if (historyImporting) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path source = chooser.getSelectedFile().toPath();
+        HistoryStore store = historyModel().store();
+        historyImporting = true;
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        Thread importer = new Thread(() -> {
+            String message;
+            String title = "Import";
+            int type = JOptionPane.INFORMATION_MESSAGE;
+            try {
+                long rows = HistoryArchive.importInto(source, store);
+                message = "Imported " + rows + " conversions";
+            } catch (IOException | RuntimeException ex) {
+                message = "Could not import history: " + ex.getMessage();
+                title = "Error";
+                type = JOptionPane.ERROR_MESSAGE;
+            }
+            String text = message;
+            String dialogTitle = title;
+            int messageType = type;
+            SwingUtilities.invokeLater(() -> {
+                historyImporting = false;
+                setCursor(Cursor.getDefaultCursor());
+                historyModel().reload();
+                JOptionPane.showMessageDialog(this, text, dialogTitle, messageType);
+            });
+        }, "history-import");
+        importer.setDaemon(true);
+        importer.start();
+    }
+
+    private JPanel createLeaderboardPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(Color.WHITE);
+
+        JLabel titleLabel = new JLabel("Currency Strength Leaderboard");
+        titleLabel.setFont(Styles.font(Font.BOLD, 18));
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+
+        JLabel infoLabel = new JLabel("(Ranked by value relative to 1 USD)");
+        infoLabel.setFont(Styles.font(Font.ITALIC, 12));
+        infoLabel.setForeground(Color.GRAY);
+        headerPanel.add(infoLabel, BorderLayout.SOUTH);
+
+        panel.add(headerPanel, BorderLayout.NORTH);
+
+        // Create leaderboard table; rate refreshes move rows in place
+        // Deltas delivered before the tab existed are already in the current snapshot
+        leaderboardModel = new LeaderboardTableModel(rateStore.current(), fastFormat);
+
+        JTable leaderboardTable = new JTable(leaderboardModel);
+        leaderboardTable.setFont(Styles.font(Font.PLAIN, 12));
+        leaderboardTable.setRowHeight(30);
+        leaderboardTable.getTableHeader().setFont(Styles.font(Font.BOLD, 13));
+        leaderboardTable.getTableHeader().setForeground(Color.BLACK);
+
+        // Set column widths
+        leaderboardTable.getColumnModel().getColumn(0).setPreferredWidth(60);
+        leaderboardTable.getColumnModel().getColumn(1).setPreferredWidth(300);
+        leaderboardTable.getColumnModel().getColumn(2).setPreferredWidth(150);
+        leaderboardTable.getColumnModel().getColumn(3).setPreferredWidth(120);
+
+        // Color-code rows based on strength
+        leaderboardTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                    boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+                if (!isSelected) {
+                    c.setBackground(Styles.BAND_COLORS[leaderboardModel.bandAt(row)]);
+                }
+
+                return c;
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(leaderboardTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        // Footer with legend
+        JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
+        legendPanel.setBackground(Color.WHITE);
+        legendPanel.setBorder(new EmptyBorder(10, 0, 0, 0));
+
+        String[] legends = { "Very Strong: < 1", "Strong: 1-10", "Moderate: 10-100", "Weak: 100-1000",
+                "Very Weak: > 1000" };
+        Color[] legendColors = Styles.BAND_COLORS;
+
+        legendLabels = new JLabel[legends.length];
+        for (int i = 0; i < legends.length; i++) {
+            JPanel legendItem = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+            legendItem.setBackground(Color.WHITE);
+
+            JPanel colorBox = new JPanel();
+            colorBox.setPreferredSize(new Dimension(20, 20));
+            colorBox.setBackground(legendColors[i]);
+            colorBox.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
+
+            JLabel legendLabel = new JLabel(legends[i]);
+            legendLabel.setFont(Styles.font(Font.PLAIN, 11));
+            legendLabels[i] = legendLabel;
+
+            legendItem.add(colorBox);
+            legendItem.add(legendLabel);
+            legendPanel.add(legendItem);
+        }
+
+        panel.add(legendPanel, BorderLayout.SOUTH);
+
+        // Band counts follow the model as rates move currencies between bands
+        updateLegendCounts(legends);
+        leaderboardModel.addTableModelListener(e -> updateLegendCounts(legends));
+
+        return panel;
+    }
+
+    private void updateLegendCounts(String[] legends) {
+        for (int band = 0; band < legendLabels.length; band++) {
+            legendLabels[band].setText(legends[band] + " (" + leaderboardModel.bandCount(band) + ")");
+        }
+    }
+
+    private void swapCurrencies() {
+        int fromIndex = fromCurrency.getSelectedIndex();
+        int toIndex = toCurrency.getSelectedIndex();
+        fromCurrency.setSelectedIndex(toIndex);
+        toCurrency.setSelectedIndex(fromIndex);
+    }
+
+    // Copies a resolved quick input into the amount field and the combo boxes
+    private boolean applyQuickInput() {
+        QuickConvert quick = QuickConvert.parse(quickField.getText(), currencyIndex);
+        if (quick == null) {
+            return false;
+        }
+        if (quick.amountText != null && !quick.amountText.equals(amountField.getText())) {
+            amountField.setText(quick.amountText);
+        }
+        if (fromCurrency.getSelectedIndex() != quick.fromId) {
+            fromCurrency.setSelectedIndex(quick.fromId);
+        }
+        if (toCurrency.getSelectedIndex() != quick.toId) {
+            toCurrency.setSelectedIndex(quick.toId);
+        }
+        return true;
+    }
+
+    // Result of one converter request, built on the worker and shown on the EDT
+    private static final class ConversionOutcome {
+        final String text;
+        final boolean converted;
+        final double amount;
+        final String fromCode;
+        final String toCode;
+        final double result;
+
+        ConversionOutcome(String text, boolean converted, double amount, String fromCode, String toCode,
+                          double result) {
+            this.text = text;
+            this.converted = converted;
+            this.amount = amount;
+            this.fromCode = fromCode;
+            this.toCode = toCode;
+            this.result = result;
+        }
+
+        static ConversionOutcome error(String text) {
+            return new ConversionOutcome(text, false, 0, null, null, 0);
+        }
+    }
+
+    // Inputs are read here on the EDT; parsing, conversion and formatting run on the worker.
+    // CONVERT records to history; previews only show the result.
+    private void performConversion(boolean record) {
+        String amountText = amountField.getText().replace(",", "").trim();
+        String from = (String) fromCurrency.getSelectedItem();
+        String to = (String) toCurrency.getSelectedItem();
+        String asOf = asOfField.getText().trim();
+        boolean exact = exactMode.isSelected();
+        (record ? convertSlot : previewSlot).submit(
+                superseded -> convert(amountText, from, to, asOf, exact, record, superseded),
+                outcome -> showConversion(outcome, record));
+    }
+
+    // Runs on the conversion worker, which alone uses resultBuilder and exactConverter
+    private ConversionOutcome convert(String amountText, String from, String to, String asOf, boolean exact,
+                                      boolean record, BooleanSupplier superseded) {
+        Metrics.Timer timer = record ? Metrics.CONVERT : Metrics.CONVERT_PREVIEW;
+        long started = timer.start();
+        long allocated = timer.allocationMark(started);
+        try {
+            boolean historical = !asOf.isEmpty();
+            ConversionEngine engine = historical ? historicalEngine(asOf) : rateStore.current();
+            if (superseded.getAsBoolean()) {
+                return null;
+            }
+            int fromId = engine.idOf(from);
+            int toId = engine.idOf(to);
+            if (fromId < 0 || toId < 0) {
+                throw new IllegalArgumentException("No rate recorded for " + (fromId < 0 ? from : to)
+                        + " as of " + asOf);
+            }
+            // Historical snapshots bypass the pair cache so they do not evict the live pairs
+            long rateStarted = Metrics.CONVERT_CURRENCY.start();
+            double rate = historical ? engine.crossRate(fromId, toId) : pairRateCache.rate(engine, fromId, toId);
+            Metrics.CONVERT_CURRENCY.stop(rateStarted, -1);
+            double amount;
+            double result;
+
+            StringBuilder output = resultBuilder;
+            output.setLength(0);
+            output.append("═══════════════════════════════════════════\n");
+            output.append("  CONVERSION RESULT\n");
+            output.append("═══════════════════════════════════════════\n\n");
+            output.append("  ");
+            if (exact) {
+                ExactConverter exactConverter = exactConverter(engine);
+                long amountMinor = exactConverter.parseMinor(amountText, fromId);
+                long resultMinor = exactConverter.convert(amountMinor, fromId, toId);
+                amount = exactConverter.toDouble(amountMinor, fromId);
+                result = exactConverter.toDouble(resultMinor, toId);
+                fastFormat.appendScaled(output, amountMinor, exactConverter.minorUnits(fromId))
+                        .append(' ').append(from).append(" = ");
+                fastFormat.appendScaled(output, resultMinor, exactConverter.minorUnits(toId))
+                        .append(' ').append(to).append("\n\n");
+            } else {
+                amount = Double.parseDouble(amountText);
+                result = amount * rate;
+                fastFormat.appendAmount(output, amount).append(' ').append(from).append(" = ");
+                fastFormat.appendAmount(output, result).append(' ').append(to).append("\n\n");
+            }
+            output.append("  Exchange Rate: 1 ").append(from).append(" = ");
+            fastFormat.appendFixed(output, rate, 4).append(' ').append(to).append('\n');
+            output.append("  Inverse Rate: 1 ").append(to).append(" = ");
+            fastFormat.appendFixed(output, 1 / rate, 4).append(' ').append(from).append("\n\n");
+            if (historical) {
+                output.append("  Rates as of ").append(asOf).append("\n\n");
+            }
+            output.append("═══════════════════════════════════════════\n");
+
+            // Pair counts are conversions the user asked for, not previews
+            if (record) {
+                Metrics.countPair(engine.code(fromId), engine.code(toId));
+            }
+            return new ConversionOutcome(output.toString(), true, amount,
+                    engine.code(fromId), engine.code(toId), result);
+        } catch (NumberFormatException ex) {
+            return ConversionOutcome.error("ERROR: Please enter a valid number");
+        } catch (ArithmeticException | IllegalArgumentException ex) {
+            // Exact mode: result overflows a long, or the snapshot has rates it cannot scale
+            return ConversionOutcome.error("ERROR: " + ex.getMessage());
+        } finally {
+            timer.stop(started, allocated);
+        }
+    }
+
+    private void showConversion(ConversionOutcome outcome, boolean record) {
+        resultArea.setText(outcome.text);
+        if (record && outcome.converted) {
+            currencyIndex.recordUse(displayedEngine.idOfCode(outcome.fromCode));
+            currencyIndex.recordUse(displayedEngine.idOfCode(outcome.toCode));
+            try {
+                historyModel().append(System.currentTimeMillis(), outcome.amount,
+                        outcome.fromCode, outcome.toCode, outcome.result);
+            } catch (IOException ex) {
+                resultArea.append("\n  (History not saved: " + ex.getMessage() + ")\n");
+            }
+        }
+        updateWorkerStatus();
+    }
+
+    private void updateWorkerStatus() {
+        StringBuilder status = new StringBuilder(96);
+        status.append("Worker queue ").append(conversionExecutor.queueDepth()).append(" · last ");
+        fastFormat.appendFixed(status, conversionExecutor.lastLatencyNanos() / 1e6, 2).append(" ms · mean ");
+        fastFormat.appendFixed(status, conversionExecutor.meanLatencyNanos() / 1e6, 2).append(" ms · max ");
+        fastFormat.appendFixed(status, conversionExecutor.maxLatencyNanos() / 1e6, 2).append(" ms · ")
+                .append(conversionExecutor.coalesced() + conversionExecutor.cancelled()).append(" superseded");
+        workerStatus.setText(status.toString());
+    }
+
+    private ConversionEngine historicalEngine(String asOf) {
+        if (rateHistory == null) {
+            throw new IllegalArgumentException("Rate history is not available");
+        }
+        ConversionEngine engine = rateHistory.snapshotAt(RateHistory.parseTimestamp(asOf));
+        if (engine == null) {
+            throw new IllegalArgumentException("No rates recorded as of " + asOf);
+        }
+        return engine;
+    }
+
+    // Every published snapshot is kept for as-of conversions; without it only live rates work.
+    // Opened off the EDT, as it maps every sealed segment; As of is enabled once it is up.
+    private void openRateHistory() {
+        Thread opener = new Thread(() -> {
+            try {
+                RateHistory history = RateHistory.open(RateHistory.defaultDirectory());
+                if (!history.isWriter()) {
+                    System.err.println("Rate history is being recorded by another process; reading only");
+                }
+                history.recordFrom(rateStore);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        history.close();
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
+                    }
+                }));
+                rateHistory = history;
+                SwingUtilities.invokeLater(() -> asOfField.setEnabled(true));
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }, "rate-history-open");
+        opener.setDaemon(true);
+        opener.start();
+    }
+
+    // Rebuilt only when a new rate snapshot has been published
+    private ExactConverter exactConverter(ConversionEngine engine) {
+        if (exactConverter == null || exactConverter.engine() != engine) {
+            exactConverter = new ExactConverter(engine, exactRounding());
+        }
+        return exactConverter;
+    }
+
+    private static RoundingMode exactRounding() {
+        return RoundingMode.valueOf(System.getProperty("currency.exact.rounding", "HALF_EVEN"));
+    }
+
+    private void performMultiConversion() {
+        try {
+            double amount = Double.parseDouble(amountField.getText().replace(",", ""));
+            String from = (String) fromCurrency.getSelectedItem();
+            runMultiConversion(amount, from);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid amount",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static final class MultiOutcome {
+        final ConversionEngine engine;
+        final int fromId;
+        final double[] results;
+
+        MultiOutcome(ConversionEngine engine, int fromId, double[] results) {
+            this.engine = engine;
+            this.fromId = fromId;
+            this.results = results;
+        }
+    }
+
+    // The fan-out runs on the worker against the snapshot current when it starts
+    private void runMultiConversion(double amount, String from) {
+        lastMultiAmount = amount;
+        lastMultiFrom = from;
+        multiSlot.submit(superseded -> {
+            ConversionEngine engine = rateStore.current();
+            int fromId = engine.idOf(from);
+            if (fromId < 0) {
+                return null;
+            }
+            long started = Metrics.MULTI_CONVERT.start();
+            long allocated = Metrics.MULTI_CONVERT.allocationMark(started);
+            double[] results = new MultiConverter(engine).convertAll(amount, fromId);
+            Metrics.MULTI_CONVERT.stop(started, allocated);
+            return superseded.getAsBoolean() ? null : new MultiOutcome(engine, fromId, results);
+        }, outcome -> {
+            multiConvertModel.update(outcome.engine, outcome.fromId, outcome.results);
+            // Rates published while the fan-out ran were delivered against the old rows
+            ConversionEngine current = rateStore.current();
+            if (current != outcome.engine && !multiConvertModel.updateRates(current, amount, null)) {
+                runMultiConversion(amount, from);
+            }
+        });
+    }
+
+    // Live rates are opt-in: -Dcurrency.rates.source=file:<path> | dir:<path> | http://...
+    private void startRateRefresh() {
+        String source = System.getProperty("currency.rates.source");
+        if (source == null) {
+            return;
+        }
+        rateRefresher = new RateRefresher(RateProvider.fromSpec(source), rateStore);
+        // Each tab gets at most one merged delta per frame, with only the currencies that moved
+        rateBus = new RateEventBus(rateStore.current(), Long.getLong("currency.rates.frame.ms", 16));
+        rateBus.subscribe("converter", SwingUtilities::invokeLater, this::onConverterRates);
+        rateBus.subscribe("multiConvert", SwingUtilities::invokeLater, this::onMultiConvertRates);
+        rateBus.subscribe("leaderboard", SwingUtilities::invokeLater, this::onLeaderboardRates);
+        rateStore.addListener(rateBus::publish);
+        rateRefresher.start(Long.getLong("currency.rates.refresh.ms", 1000));
+    }
+
+    private void onConverterRates(RateEventBus.Delta delta) {
+        ConversionEngine engine = delta.engine();
+        if (delta.catalogChanged()) {
+            Object from = fromCurrency.getSelectedItem();
+            Object to = toCurrency.getSelectedItem();
+            fromCurrency.setModel(new DefaultComboBoxModel<>(engine.labels()));
+            toCurrency.setModel(new DefaultComboBoxModel<>(engine.labels()));
+            fromCurrency.setSelectedItem(from);
+            toCurrency.setSelectedItem(to);
+            currencyIndex = new CurrencyIndex(engine, currencyIndex);
+            fromCurrency.setKeySelectionManager(currencyIndex.typeAhead());
+            toCurrency.setKeySelectionManager(currencyIndex.typeAhead());
+            if (historyTableModel != null) {
+                historyTableModel.setEngine(engine);
+            }
+        }
+        displayedEngine = engine;
+        // Live previews follow the rates of the selected pair; as-of previews do not move
+        if (asOfField.getText().trim().isEmpty()
+                && (delta.changed(fromCurrency.getSelectedIndex()) || delta.changed(toCurrency.getSelectedIndex()))) {
+            performConversion(false);
+        }
+    }
+
+    private void onMultiConvertRates(RateEventBus.Delta delta) {
+        if (lastMultiFrom == null || multiConvertModel == null) {
+            return;
+        }
+        if (delta.catalogChanged()
+                || !multiConvertModel.updateRates(delta.engine(), lastMultiAmount, delta.changedIds())) {
+            runMultiConversion(lastMultiAmount, lastMultiFrom);
+        }
+    }
+
+    private void onLeaderboardRates(RateEventBus.Delta delta) {
+        if (leaderboardModel == null) {
+            return;
+        }
+        long started = Metrics.LEADERBOARD.start();
+        long allocated = Metrics.LEADERBOARD.allocationMark(started);
+        leaderboardModel.update(delta.engine(), delta.catalogChanged() ? null : delta.changedIds());
+        Metrics.LEADERBOARD.stop(started, allocated);
+    }
+
+    public static void main(String[] args) {
+        Startup.begin();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(LedgerConverter.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--history")) {
+            System.exit(HistoryArchive.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--scenarios")) {
+            System.exit(ScenarioEngine.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            int status = ConversionServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            try {
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            Startup.mark("look and feel");
+            new CurrencyConverterApp();
+        });
+    }
+}
\ No newline at end of file
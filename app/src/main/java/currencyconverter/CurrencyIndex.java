@@ -0,0 +1,420 @@
+package currencyconverter;
+
+import java.util.Arrays;
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.UIManager;
+
+/**
+ * Type-ahead search over a currency catalog. A query matches an ISO code prefix, the
+ * prefix of a word in the name, or, from three characters on, any substring of
+ * "CODE NAME". Short queries are answered from code and word prefix arrays by binary
+ * search. Longer queries are answered from a trigram index, checking only the currencies
+ * on the rarest trigram's posting list. Results rank by match kind, then by how often the
+ * currency has been converted, then by catalog order.
+ *
+ * Queries reuse the index's scratch arrays and allocate nothing, so an index belongs to one
+ * thread at a time (the EDT in the app).
+ */
+final class CurrencyIndex {
+    // Match kinds, best first
+    static final int EXACT_CODE = 0;
+    static final int CODE_PREFIX = 1;
+    static final int WORD_PREFIX = 2;
+    static final int SUBSTRING = 3;
+    static final int NO_MATCH = 4;
+
+    private static final int GRAM = 3;
+    // Trigram symbols: space, 0-9, A-Z, anything else
+    private static final int SYMBOLS = 38;
+    private static final int MAX_QUERY = 64;
+
+    private final ConversionEngine engine;
+    // Normalized "CODE NAME" per currency, e.g. "TOP TONGAN PAANGA"
+    private final char[][] texts;
+    private final int[] codeLengths;
+    // Currency IDs sorted by code
+    private final int[] byCode;
+    // Name words sorted by the text from the word on: owning currency and start offset
+    private final int[] wordIds;
+    private final int[] wordStarts;
+    // Sorted distinct trigrams, each with a run of currency IDs in gramIds
+    private final int[] gramKeys;
+    private final int[] gramOffsets;
+    private final int[] gramIds;
+    private final long[] uses;
+
+    private final char[] query = new char[MAX_QUERY];
+    private final int[] seen;
+    private final int[] kinds;
+    private int stamp;
+    private int queryLength;
+    private int bestId;
+
+    CurrencyIndex(ConversionEngine engine) {
+        this(engine, null);
+    }
+
+    // Usage counts carry over from previous by code, for a catalog that gained or lost currencies
+    CurrencyIndex(ConversionEngine engine, CurrencyIndex previous) {
+        this.engine = engine;
+        int n = engine.size();
+        texts = new char[n][];
+        codeLengths = new int[n];
+        uses = new long[n];
+        seen = new int[n];
+        kinds = new int[n];
+
+        int wordCount = 0;
+        int gramCount = 0;
+        for (int id = 0; id < n; id++) {
+            String label = engine.label(id);
+            String code = engine.code(id);
+            String name = label.substring(code.length()).trim();
+            if (name.startsWith("(") && name.endsWith(")")) {
+                name = name.substring(1, name.length() - 1);
+            }
+            char[] text = new char[code.length() + 1 + name.length()];
+            int length = normalize(code + " " + name, text);
+            texts[id] = Arrays.copyOf(text, length);
+            codeLengths[id] = normalize(code, text);
+            for (int i = codeLengths[id]; i < length; i++) {
+                if (texts[id][i - 1] == ' ') {
+                    wordCount++;
+                }
+            }
+            gramCount += Math.max(0, length - GRAM + 1);
+            if (previous != null) {
+                int old = previous.engine.idOfCode(code);
+                if (old >= 0) {
+                    uses[id] = previous.uses[old];
+                }
+            }
+        }
+
+        Integer[] codeOrder = new Integer[n];
+        for (int id = 0; id < n; id++) {
+            codeOrder[id] = id;
+        }
+        Arrays.sort(codeOrder, (a, b) -> compare(texts[a], 0, codeLengths[a], texts[b], 0, codeLengths[b]));
+        byCode = new int[n];
+        for (int i = 0; i < n; i++) {
+            byCode[i] = codeOrder[i];
+        }
+
+        long[] words = new long[wordCount];
+        int w = 0;
+        for (int id = 0; id < n; id++) {
+            char[] text = texts[id];
+            for (int i = codeLengths[id]; i < text.length; i++) {
+                if (text[i - 1] == ' ') {
+                    words[w++] = (long) id << 32 | i;
+                }
+            }
+        }
+        Long[] wordOrder = new Long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            wordOrder[i] = words[i];
+        }
+        Arrays.sort(wordOrder, (a, b) -> {
+            char[] ta = texts[(int) (a >>> 32)];
+            char[] tb = texts[(int) (b >>> 32)];
+            return compare(ta, (int) (long) a, ta.length, tb, (int) (long) b, tb.length);
+        });
+        wordIds = new int[wordCount];
+        wordStarts = new int[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            wordIds[i] = (int) (wordOrder[i] >>> 32);
+            wordStarts[i] = (int) (long) wordOrder[i];
+        }
+
+        // (trigram, id) pairs sorted and deduplicated give the posting lists directly
+        long[] grams = new long[gramCount];
+        int g = 0;
+        for (int id = 0; id < n; id++) {
+            char[] text = texts[id];
+            for (int i = 0; i + GRAM <= text.length; i++) {
+                grams[g++] = (long) gram(text, i) << 32 | id;
+            }
+        }
+        Arrays.sort(grams);
+        int[] keys = new int[gramCount];
+        int[] offsets = new int[gramCount + 1];
+        int[] ids = new int[gramCount];
+        int distinct = 0;
+        int postings = 0;
+        for (int i = 0; i < gramCount; i++) {
+            if (i > 0 && grams[i] == grams[i - 1]) {
+                continue;
+            }
+            int key = (int) (grams[i] >>> 32);
+            if (distinct == 0 || keys[distinct - 1] != key) {
+                keys[distinct] = key;
+                offsets[distinct++] = postings;
+            }
+            ids[postings++] = (int) grams[i];
+        }
+        offsets[distinct] = postings;
+        gramKeys = Arrays.copyOf(keys, distinct);
+        gramOffsets = Arrays.copyOf(offsets, distinct + 1);
+        gramIds = Arrays.copyOf(ids, postings);
+    }
+
+    ConversionEngine engine() {
+        return engine;
+    }
+
+    // Counts a conversion from or to the currency, lifting it among equal matches
+    void recordUse(int id) {
+        if (id >= 0 && id < uses.length) {
+            uses[id]++;
+        }
+    }
+
+    long uses(int id) {
+        return uses[id];
+    }
+
+    // Best match for the query, or -1
+    int best(CharSequence text) {
+        return best(text, 0, text.length());
+    }
+
+    int best(CharSequence text, int start, int end) {
+        int found = search(text, start, end, null);
+        return found > 0 ? found - 1 : -1;
+    }
+
+    /**
+     * Fills out with the IDs of the best matches, best first, and returns how many were
+     * written. Characters past the first 64 of the normalized query are ignored.
+     */
+    int search(CharSequence text, int[] out) {
+        return search(text, 0, text.length(), out);
+    }
+
+    // With out == null, returns the best ID + 1, or 0 for no match
+    private int search(CharSequence text, int start, int end, int[] out) {
+        queryLength = normalize(text, start, end, query);
+        if (queryLength == 0 || (out != null && out.length == 0)) {
+            return 0;
+        }
+        if (++stamp == 0) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+        bestId = -1;
+        int count = queryLength < GRAM ? searchPrefixes(out) : searchGrams(out);
+        return out != null ? count : bestId + 1;
+    }
+
+    private int searchPrefixes(int[] out) {
+        int count = 0;
+        for (int i = lowerBound(byCode.length, -1); i < byCode.length; i++) {
+            int id = byCode[i];
+            if (!startsWith(texts[id], 0, codeLengths[id])) {
+                break;
+            }
+            count = consider(id, out, count);
+        }
+        for (int i = lowerBound(wordIds.length, 0); i < wordIds.length; i++) {
+            int id = wordIds[i];
+            if (!startsWith(texts[id], wordStarts[i], texts[id].length)) {
+                break;
+            }
+            count = consider(id, out, count);
+        }
+        return count;
+    }
+
+    private int searchGrams(int[] out) {
+        int rarest = -1;
+        for (int i = 0; i + GRAM <= queryLength; i++) {
+            int slot = Arrays.binarySearch(gramKeys, gram(query, i));
+            if (slot < 0) {
+                return 0;
+            }
+            if (rarest < 0 || postings(slot) < postings(rarest)) {
+                rarest = slot;
+            }
+        }
+        int count = 0;
+        for (int p = gramOffsets[rarest]; p < gramOffsets[rarest + 1]; p++) {
+            count = consider(gramIds[p], out, count);
+        }
+        return count;
+    }
+
+    private int postings(int slot) {
+        return gramOffsets[slot + 1] - gramOffsets[slot];
+    }
+
+    // Classifies a candidate once per query and inserts it into out in rank order,
+    // keeping only the best out.length
+    private int consider(int id, int[] out, int count) {
+        if (seen[id] == stamp) {
+            return count;
+        }
+        seen[id] = stamp;
+        kinds[id] = classify(id);
+        if (kinds[id] == NO_MATCH) {
+            return count;
+        }
+        if (out == null) {
+            if (bestId < 0 || ranksBefore(id, bestId)) {
+                bestId = id;
+            }
+            return count;
+        }
+        int i = count;
+        while (i > 0 && ranksBefore(id, out[i - 1])) {
+            i--;
+        }
+        if (i == out.length) {
+            return count;
+        }
+        int kept = Math.min(count, out.length - 1);
+        System.arraycopy(out, i, out, i + 1, kept - i);
+        out[i] = id;
+        return kept + 1;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        if (kinds[a] != kinds[b]) {
+            return kinds[a] < kinds[b];
+        }
+        if (uses[a] != uses[b]) {
+            return uses[a] > uses[b];
+        }
+        return a < b;
+    }
+
+    private int classify(int id) {
+        char[] text = texts[id];
+        if (startsWith(text, 0, text.length)) {
+            return queryLength == codeLengths[id] ? EXACT_CODE : CODE_PREFIX;
+        }
+        for (int i = codeLengths[id] + 1; i < text.length; i++) {
+            if (text[i - 1] == ' ' && startsWith(text, i, text.length)) {
+                return WORD_PREFIX;
+            }
+        }
+        if (queryLength >= GRAM) {
+            for (int i = 1; i + queryLength <= text.length; i++) {
+                if (startsWith(text, i, text.length)) {
+                    return SUBSTRING;
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private boolean startsWith(char[] text, int start, int end) {
+        if (end - start < queryLength) {
+            return false;
+        }
+        for (int i = 0; i < queryLength; i++) {
+            if (text[start + i] != query[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // First entry of byCode (word == -1) or of the word arrays not ordered before the query
+    private int lowerBound(int size, int word) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int id = word < 0 ? byCode[mid] : wordIds[mid];
+            int start = word < 0 ? 0 : wordStarts[mid];
+            int end = word < 0 ? codeLengths[id] : texts[id].length;
+            if (compare(texts[id], start, end, query, 0, queryLength) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Combo box type-ahead: keys typed within the look and feel's pause (one second by
+     * default) build up one query, and the best match is selected. Combo rows must be the
+     * catalog's labels in ID order, as {@link ConversionEngine#labels()} returns them.
+     */
+    JComboBox.KeySelectionManager typeAhead() {
+        return new JComboBox.KeySelectionManager() {
+            private final StringBuilder typed = new StringBuilder(MAX_QUERY);
+            private long lastKeyMillis;
+
+            @Override
+            public int selectionForKey(char key, ComboBoxModel<?> model) {
+                if (model.getSize() != texts.length) {
+                    return -1;
+                }
+                long now = System.currentTimeMillis();
+                Object pause = UIManager.get("ComboBox.timeFactor");
+                long pauseMillis = pause instanceof Long ? (Long) pause : 1000L;
+                if (now - lastKeyMillis > pauseMillis || typed.length() == MAX_QUERY) {
+                    typed.setLength(0);
+                }
+                lastKeyMillis = now;
+                typed.append(key);
+                return best(typed);
+            }
+        };
+    }
+
+    private static int compare(char[] a, int aStart, int aEnd, char[] b, int bStart, int bEnd) {
+        int length = Math.min(aEnd - aStart, bEnd - bStart);
+        for (int i = 0; i < length; i++) {
+            if (a[aStart + i] != b[bStart + i]) {
+                return a[aStart + i] - b[bStart + i];
+            }
+        }
+        return (aEnd - aStart) - (bEnd - bStart);
+    }
+
+    private static int gram(char[] text, int i) {
+        return (symbol(text[i]) * SYMBOLS + symbol(text[i + 1])) * SYMBOLS + symbol(text[i + 2]);
+    }
+
+    private static int symbol(char c) {
+        if (c == ' ') {
+            return 0;
+        } else if (c >= '0' && c <= '9') {
+            return 1 + c - '0';
+        } else if (c >= 'A' && c <= 'Z') {
+            return 11 + c - 'A';
+        }
+        return SYMBOLS - 1;
+    }
+
+    private static int normalize(CharSequence text, char[] out) {
+        return normalize(text, 0, text.length(), out);
+    }
+
+    // Upper case letters and digits, apostrophes dropped, any other run as one space, trimmed
+    private static int normalize(CharSequence text, int start, int end, char[] out) {
+        int length = 0;
+        boolean space = false;
+        for (int i = start; i < end && length < out.length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && length > 0) {
+                    out[length++] = ' ';
+                    if (length == out.length) {
+                        break;
+                    }
+                }
+                out[length++] = Character.toUpperCase(c);
+                space = false;
+            } else if (c != '\'' && c != '\u2019') {
+                space = true;
+            }
+        }
+        return length;
+    }
+}
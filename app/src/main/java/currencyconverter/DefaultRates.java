@@ -0,0 +1,114 @@
+package currencyconverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The built-in rate table, in units per 1 USD. Entries are kept in label order, the order
+ * {@link ConversionEngine} assigns IDs in, so the startup snapshot is built without sorting
+ * and without loading any UI classes.
+ */
+final class DefaultRates {
+    private static final int SIZE = 75;
+    private static final String[] LABELS = new String[SIZE];
+    private static final double[] RATES = new double[SIZE];
+    private static int count;
+
+    static {
+        put("ANG (NETHERLANDS ANTILLEAN GUILDER)", 1.79);
+        put("ARS (ARGENTINE PESO)", 960.00);
+        put("AUD (AUSTRALIAN DOLLAR)", 1.53);
+        put("BBD (BARBADIAN DOLLAR)", 2.00);
+        put("BDT (BANGLADESHI TAKA)", 118.50);
+        put("BGN (BULGARIAN LEV)", 1.80);
+        put("BHD (BAHRAINI DINAR)", 0.38);
+        put("BRL (BRAZILIAN REAL)", 4.98);
+        put("BSD (BAHAMIAN DOLLAR)", 1.00);
+        put("BZD (BELIZE DOLLAR)", 2.00);
+        put("CAD (CANADIAN DOLLAR)", 1.36);
+        put("CHF (SWISS FRANC)", 0.88);
+        put("CLP (CHILEAN PESO)", 950.00);
+        put("CNY (CHINESE YUAN)", 7.24);
+        put("COP (COLOMBIAN PESO)", 4090.00);
+        put("CRC (COSTA RICAN COLON)", 524.00);
+        put("CZK (CZECH KORUNA)", 23.30);
+        put("DOP (DOMINICAN PESO)", 59.00);
+        put("EGP (EGYPTIAN POUND)", 48.00);
+        put("ETB (ETHIOPIAN BIRR)", 114.00);
+        put("EUR (EURO)", 0.92);
+        put("FJD (FIJIAN DOLLAR)", 2.26);
+        put("GBP (BRITISH POUND)", 0.79);
+        put("GHS (GHANAIAN CEDI)", 15.30);
+        put("HRK (CROATIAN KUNA)", 7.05);
+        put("HTG (HAITIAN GOURDE)", 132.00);
+        put("HUF (HUNGARIAN FORINT)", 364.00);
+        put("IDR (INDONESIAN RUPIAH)", 15700.00);
+        put("ILS (ISRAELI SHEKEL)", 3.85);
+        put("INR (INDIAN RUPEE)", 83.12);
+        put("ISK (ICELANDIC KRONA)", 138.60);
+        put("JMD (JAMAICAN DOLLAR)", 156.00);
+        put("JOD (JORDANIAN DINAR)", 0.71);
+        put("JPY (JAPANESE YEN)", 149.50);
+        put("KES (KENYAN SHILLING)", 130.50);
+        put("KRW (SOUTH KOREAN WON)", 1338.50);
+        put("KWD (KUWAITI DINAR)", 0.31);
+        put("KYD (CAYMAN ISLANDS DOLLAR)", 0.82);
+        put("LKR (SRI LANKAN RUPEE)", 304.00);
+        put("MAD (MOROCCAN DIRHAM)", 10.00);
+        put("MUR (MAURITIAN RUPEE)", 46.00);
+        put("MWK (MALAWIAN KWACHA)", 1740.00);
+        put("MXN (MEXICAN PESO)", 17.08);
+        put("MYR (MALAYSIAN RINGGIT)", 4.77);
+        put("NGN (NIGERIAN NAIRA)", 1560.00);
+        put("NPR (NEPALESE RUPEE)", 132.60);
+        put("NZD (NEW ZEALAND DOLLAR)", 1.67);
+        put("OMR (OMANI RIAL)", 0.39);
+        put("PEN (PERUVIAN SOL)", 3.72);
+        put("PGK (PAPUA NEW GUINEA KINA)", 3.78);
+        put("PKR (PAKISTANI RUPEE)", 277.00);
+        put("PLN (POLISH ZLOTY)", 4.04);
+        put("QAR (QATARI RIYAL)", 3.64);
+        put("RON (ROMANIAN LEU)", 4.57);
+        put("SAR (SAUDI RIYAL)", 3.75);
+        put("SBD (SOLOMON ISLANDS DOLLAR)", 8.35);
+        put("SCR (SEYCHELLES RUPEE)", 14.00);
+        put("SGD (SINGAPORE DOLLAR)", 1.34);
+        put("SRD (SURINAMESE DOLLAR)", 37.50);
+        put("THB (THAI BAHT)", 36.60);
+        put("TND (TUNISIAN DINAR)", 3.10);
+        put("TOP (TONGAN PA’ANGA)", 2.40);
+        put("TTD (TRINIDAD & TOBAGO DOLLAR)", 6.80);
+        put("UAH (UKRAINIAN HRYVNIA)", 40.20);
+        put("USD (US DOLLARS)", 1.0);
+        put("UYU (URUGUAYAN PESO)", 41.00);
+        put("VEF (VENEZUELAN BOLIVAR)", 36.00);
+        put("VND (VIETNAMESE DONG)", 24400.00);
+        put("VUV (VANUATU VATU)", 119.00);
+        put("WST (SAMOAN TALA)", 2.80);
+        put("XAF (CENTRAL AFRICAN CFA FRANC)", 604.00);
+        put("XCD (EAST CARIBBEAN DOLLAR)", 2.70);
+        put("XOF (WEST AFRICAN CFA FRANC)", 604.00);
+        put("ZAR (SOUTH AFRICAN RAND)", 18.65);
+        put("ZMW (ZAMBIAN KWACHA)", 26.00);
+    }
+
+    private DefaultRates() {
+    }
+
+    private static void put(String label, double rate) {
+        LABELS[count] = label;
+        RATES[count++] = rate;
+    }
+
+    static ConversionEngine engine() {
+        return new ConversionEngine(LABELS.clone(), RATES.clone());
+    }
+
+    static Map<String, Double> map() {
+        Map<String, Double> rates = new LinkedHashMap<>(SIZE * 2);
+        for (int i = 0; i < SIZE; i++) {
+            rates.put(LABELS[i], RATES[i]);
+        }
+        return rates;
+    }
+}
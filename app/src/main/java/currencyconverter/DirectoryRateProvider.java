@@ -0,0 +1,78 @@
+package currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches a directory of {@code *.rates} files. All files are merged in name order, so a
+ * later file (e.g. a feed drop named by timestamp) overrides codes from earlier ones.
+ * The directory is only re-read after the watch service reports a change.
+ */
+public class DirectoryRateProvider implements RateProvider {
+    private final Path directory;
+    private WatchService watcher;
+
+    public DirectoryRateProvider(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Map<String, Double> fetchRates() throws IOException {
+        if (watcher == null) {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            return readAll();
+        }
+
+        boolean changed = false;
+        WatchKey key;
+        while ((key = watcher.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object context = event.context();
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || (context instanceof Path && isRatesFile((Path) context))) {
+                    changed = true;
+                }
+            }
+            key.reset();
+        }
+        return changed ? readAll() : null;
+    }
+
+    private Map<String, Double> readAll() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.rates")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        Map<String, Double> rates = new HashMap<>();
+        for (Path file : files) {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                rates.putAll(RateProvider.parse(in, file.toString()));
+            }
+        }
+        return rates;
+    }
+
+    private static boolean isRatesFile(Path path) {
+        return path.getFileName().toString().endsWith(".rates");
+    }
+}
@@ -0,0 +1,317 @@
+package currencyconverter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exact conversion over scaled longs. Amounts are counts of the currency's ISO 4217 minor
+ * unit (cents, fils, yen) and every rate snapshot is turned once into integer weights
+ * {@code rate * 10^(rateDigits + minorUnits)}, so a conversion is an integer quotient with
+ * explicit rounding. Ordinary amounts get that quotient from a floating-point estimate
+ * corrected against the exact remainder; products that do not fit in 64 bits are divided
+ * in 128 bits, and only a result that no longer fits in a long is an error.
+ */
+public final class ExactConverter {
+    // Rate digits kept after the decimal point, lowered per snapshot if a weight would overflow
+    private static final int MAX_RATE_DIGITS = 12;
+    private static final long MASK_32 = 0xFFFFFFFFL;
+    // Below 2^52 the floating-point estimate of a quotient is off by at most one
+    private static final double EXACT_ESTIMATE_LIMIT = 0x1p52;
+    private static final long[] POW10 = new long[19];
+    private static final Map<String, Integer> MINOR_UNITS = new HashMap<>();
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        // ISO 4217 currencies without the usual two decimals
+        for (String code : new String[] { "BIF", "CLP", "DJF", "GNF", "ISK", "JPY", "KMF", "KRW",
+                "PYG", "RWF", "UGX", "UYI", "VND", "VUV", "XAF", "XOF", "XPF" }) {
+            MINOR_UNITS.put(code, 0);
+        }
+        for (String code : new String[] { "BHD", "IQD", "JOD", "KWD", "LYD", "OMR", "TND" }) {
+            MINOR_UNITS.put(code, 3);
+        }
+        MINOR_UNITS.put("CLF", 4);
+        MINOR_UNITS.put("UYW", 4);
+    }
+
+    private final ConversionEngine engine;
+    private final RoundingMode rounding;
+    private final int rateDigits;
+    private final int[] minorUnits;
+    private final long[] weights;
+
+    public ExactConverter(ConversionEngine engine) {
+        this(engine, RoundingMode.HALF_EVEN);
+    }
+
+    public ExactConverter(ConversionEngine engine, RoundingMode rounding) {
+        this.engine = engine;
+        this.rounding = rounding;
+
+        int n = engine.size();
+        minorUnits = new int[n];
+        BigDecimal[] rates = new BigDecimal[n];
+        int digits = MAX_RATE_DIGITS;
+        for (int id = 0; id < n; id++) {
+            minorUnits[id] = minorUnitsOf(engine.code(id));
+            rates[id] = BigDecimal.valueOf(engine.rate(id));
+            if (rates[id].signum() <= 0) {
+                throw new IllegalArgumentException("Non-positive rate for " + engine.code(id));
+            }
+            int integerDigits = Math.max(rates[id].precision() - rates[id].scale(), 0);
+            digits = Math.min(digits, 18 - integerDigits - minorUnits[id]);
+        }
+        if (digits < 0) {
+            throw new IllegalArgumentException("Rates too large for exact mode");
+        }
+        rateDigits = digits;
+
+        weights = new long[n];
+        for (int id = 0; id < n; id++) {
+            weights[id] = rates[id].movePointRight(rateDigits + minorUnits[id])
+                    .setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+            if (weights[id] == 0) {
+                throw new IllegalArgumentException("Rate too small for exact mode: " + engine.code(id));
+            }
+        }
+    }
+
+    // Decimal places of the code's minor unit; 2 for anything not in the ISO exception list
+    public static int minorUnitsOf(String code) {
+        return MINOR_UNITS.getOrDefault(code, 2);
+    }
+
+    public ConversionEngine engine() {
+        return engine;
+    }
+
+    public RoundingMode rounding() {
+        return rounding;
+    }
+
+    public int rateDigits() {
+        return rateDigits;
+    }
+
+    public int minorUnits(int id) {
+        return minorUnits[id];
+    }
+
+    public long convert(long amountMinor, int fromId, int toId) {
+        return convert(amountMinor, fromId, toId, rounding);
+    }
+
+    // amountMinor * weight[to] / weight[from], rounded with the given mode
+    public long convert(long amountMinor, int fromId, int toId, RoundingMode mode) {
+        if (fromId == toId) {
+            return amountMinor;
+        }
+        long multiplier = weights[toId];
+        long divisor = weights[fromId];
+        return convert(amountMinor, multiplier, divisor, (double) multiplier / divisor, mode);
+    }
+
+    public void convert(long[] amountsMinor, int fromId, int toId, long[] out) {
+        if (out.length < amountsMinor.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input");
+        }
+        if (fromId == toId) {
+            System.arraycopy(amountsMinor, 0, out, 0, amountsMinor.length);
+            return;
+        }
+        long multiplier = weights[toId];
+        long divisor = weights[fromId];
+        double ratio = (double) multiplier / divisor;
+        for (int i = 0; i < amountsMinor.length; i++) {
+            out[i] = convert(amountsMinor[i], multiplier, divisor, ratio, rounding);
+        }
+    }
+
+    private static long convert(long amountMinor, long multiplier, long divisor, double ratio,
+                                RoundingMode mode) {
+        boolean negative = amountMinor < 0;
+        // Math.abs(Long.MIN_VALUE) is still 2^63 when read as unsigned
+        long magnitude = Math.abs(amountMinor);
+        long quotient;
+        long remainder;
+        double estimate = (double) magnitude * ratio;
+        if (estimate < EXACT_ESTIMATE_LIMIT && magnitude >= 0) {
+            // The double estimate is within one of the true quotient; the remainder is
+            // computed exactly in wrapping arithmetic (it lies in (-divisor, 2 * divisor))
+            // and the quotient corrected from it, so no hardware divide is needed.
+            quotient = (long) estimate;
+            remainder = magnitude * multiplier - quotient * divisor;
+            while (remainder < 0) {
+                quotient--;
+                remainder += divisor;
+            }
+            while (remainder >= divisor) {
+                quotient++;
+                remainder -= divisor;
+            }
+        } else {
+            long lo = magnitude * multiplier;
+            long hi = unsignedMultiplyHigh(magnitude, multiplier);
+            if (hi == 0 && lo >= 0) {
+                quotient = lo / divisor;
+            } else {
+                if (Long.compareUnsigned(hi, divisor) >= 0) {
+                    throw new ArithmeticException("Converted amount overflows a long");
+                }
+                quotient = divide128(hi, lo, divisor);
+            }
+            remainder = lo - quotient * divisor;
+            if (quotient < 0) {
+                throw new ArithmeticException("Converted amount overflows a long");
+            }
+        }
+        if (roundsAway(quotient, remainder, divisor, negative, mode)) {
+            quotient = Math.incrementExact(quotient);
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    public double toDouble(long amountMinor, int id) {
+        return (double) amountMinor / POW10[minorUnits[id]];
+    }
+
+    /**
+     * Parses a plain decimal ("1234.5", "-0.125") straight into minor units of the given
+     * currency. Digits past the currency's precision are rounded with this converter's mode.
+     */
+    public long parseMinor(CharSequence text, int id) {
+        int units = minorUnits[id];
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        int firstDropped = 0;
+        boolean sticky = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+            digits++;
+            if (fractionDigits >= units) {
+                // Past the currency's precision: keep the first dropped digit and a sticky bit
+                if (fractionDigits == units) {
+                    firstDropped = c - '0';
+                } else {
+                    sticky |= c != '0';
+                }
+                fractionDigits++;
+                continue;
+            }
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+            value = accumulate(value, c - '0', text);
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < units; scale++) {
+            value = accumulate(value, 0, text);
+        }
+
+        // Dropped digits as a fraction r/d that compares to one half the same way they do
+        long remainder = sticky ? 2L * firstDropped + 1 : firstDropped;
+        long divisor = sticky ? 20 : 10;
+        if (roundsAway(value, remainder, divisor, negative, rounding)) {
+            if (value == Long.MAX_VALUE) {
+                throw new NumberFormatException("Amount out of range: " + text);
+            }
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    private static long accumulate(long value, int digit, CharSequence text) {
+        if (value > (Long.MAX_VALUE - digit) / 10) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        return value * 10 + digit;
+    }
+
+    private static boolean roundsAway(long quotient, long remainder, long divisor,
+                                      boolean negative, RoundingMode mode) {
+        if (remainder == 0) {
+            return false;
+        }
+        int half = Long.compare(remainder, divisor - remainder);
+        switch (mode) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return half >= 0;
+            case HALF_DOWN:
+                return half > 0;
+            case HALF_EVEN:
+                return half > 0 || (half == 0 && (quotient & 1) == 1);
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+    }
+
+    // High 64 bits of the unsigned 128-bit product
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    // Unsigned (hi:lo) / divisor for hi < divisor, Knuth's algorithm D on 32-bit digits
+    private static long divide128(long hi, long lo, long divisor) {
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vn1 = v >>> 32;
+        long vn0 = v & MASK_32;
+        long un32 = shift == 0 ? hi : (hi << shift) | (lo >>> (64 - shift));
+        long un10 = lo << shift;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & MASK_32;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = Long.remainderUnsigned(un32, vn1);
+        while (q1 > MASK_32 || Long.compareUnsigned(q1 * vn0, (rhat << 32) | un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (rhat > MASK_32) {
+                break;
+            }
+        }
+
+        long un21 = (un32 << 32) + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = Long.remainderUnsigned(un21, vn1);
+        while (q0 > MASK_32 || Long.compareUnsigned(q0 * vn0, (rhat << 32) | un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (rhat > MASK_32) {
+                break;
+            }
+        }
+        return (q1 << 32) | q0;
+    }
+}
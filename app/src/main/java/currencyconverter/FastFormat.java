@@ -0,0 +1,174 @@
+package currencyconverter;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Allocation-free replacement for the {@code "#,##0.00"} DecimalFormat and the
+ * {@code "HH:mm:ss"} SimpleDateFormat used on the display paths. Output is identical to
+ * those formats for the locale and time zone the instance was created with, but it is
+ * appended straight into a caller-supplied StringBuilder. Instances hold no mutable
+ * state, so one can be shared by any number of threads.
+ */
+public final class FastFormat {
+    // Above this the cents no longer fit exactly in a double; such values go to DecimalFormat
+    private static final double MAX_FAST_AMOUNT = 1e13;
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private static final FastFormat DEFAULT = new FastFormat();
+
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String negativePrefix;
+    private final TimeZone timeZone;
+    private final ThreadLocal<DecimalFormat> fallback;
+
+    public FastFormat() {
+        this(Locale.getDefault(Locale.Category.FORMAT), TimeZone.getDefault());
+    }
+
+    public FastFormat(Locale locale, TimeZone timeZone) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.zeroDigit = symbols.getZeroDigit();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.negativePrefix = new DecimalFormat("#,##0.00", symbols).getNegativePrefix();
+        this.timeZone = (TimeZone) timeZone.clone();
+        this.fallback = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00", symbols));
+    }
+
+    public static FastFormat getDefault() {
+        return DEFAULT;
+    }
+
+    // Same output as new DecimalFormat("#,##0.00").format(value), including "-0.00"
+    public StringBuilder appendAmount(StringBuilder sb, double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude < MAX_FAST_AMOUNT)) {
+            return sb.append(fallback.get().format(value));
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append(negativePrefix);
+        }
+        long cents = roundHalfEven(magnitude, 100);
+        appendGrouped(sb, cents / 100);
+        sb.append(decimalSeparator);
+        appendPadded(sb, cents % 100, 2);
+        return sb;
+    }
+
+    public String formatAmount(double value) {
+        return appendAmount(new StringBuilder(24), value).toString();
+    }
+
+    // Exact minor-unit amounts: grouped like "#,##0" plus exactly `decimals` digits (0-18)
+    public StringBuilder appendScaled(StringBuilder sb, long unscaled, int decimals) {
+        if (unscaled == Long.MIN_VALUE) {
+            return sb.append(BigDecimal.valueOf(unscaled, decimals).toPlainString());
+        }
+        if (unscaled < 0) {
+            sb.append(negativePrefix);
+        }
+        long magnitude = Math.abs(unscaled);
+        appendGrouped(sb, magnitude / POW10[decimals]);
+        if (decimals > 0) {
+            sb.append(decimalSeparator);
+            appendPadded(sb, magnitude % POW10[decimals], decimals);
+        }
+        return sb;
+    }
+
+    /**
+     * Plain fixed-point output with the given number of decimals (0-9), no grouping, used
+     * where the old code had {@code %.4f}. Rounds the exact binary value half-up.
+     */
+    public StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+        long scale = POW10[decimals];
+        double magnitude = Math.abs(value);
+        if (!(magnitude * scale < 4e15)) {
+            return sb.append(String.format("%." + decimals + "f", value));
+        }
+        long units = roundHalfUp(magnitude, scale);
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+        }
+        appendPadded(sb, units / scale, 1);
+        if (decimals > 0) {
+            sb.append(decimalSeparator);
+            appendPadded(sb, units % scale, decimals);
+        }
+        return sb;
+    }
+
+    // Same output as new SimpleDateFormat("HH:mm:ss").format(new Date(epochMillis))
+    public StringBuilder appendTime(StringBuilder sb, long epochMillis) {
+        long local = epochMillis + timeZone.getOffset(epochMillis);
+        int secondOfDay = (int) Math.floorMod(Math.floorDiv(local, 1000L), 86_400L);
+        appendPadded(sb, secondOfDay / 3600, 2);
+        sb.append(':');
+        appendPadded(sb, secondOfDay / 60 % 60, 2);
+        sb.append(':');
+        appendPadded(sb, secondOfDay % 60, 2);
+        return sb;
+    }
+
+    public String formatTime(long epochMillis) {
+        return appendTime(new StringBuilder(8), epochMillis).toString();
+    }
+
+    // round(magnitude * scale) with ties to even, decided on the exact product via fma
+    private static long roundHalfEven(double magnitude, long scale) {
+        long floor = exactFloor(magnitude, scale);
+        double diff = Math.fma(magnitude, scale, -(floor + 0.5));
+        return diff > 0 || (diff == 0 && (floor & 1) == 1) ? floor + 1 : floor;
+    }
+
+    private static long roundHalfUp(double magnitude, long scale) {
+        long floor = exactFloor(magnitude, scale);
+        return Math.fma(magnitude, scale, -(floor + 0.5)) >= 0 ? floor + 1 : floor;
+    }
+
+    // floor of the exact product; the rounded product can land on the next integer up
+    private static long exactFloor(double magnitude, long scale) {
+        long floor = (long) Math.floor(magnitude * scale);
+        if (Math.fma(magnitude, scale, -floor) < 0) {
+            floor--;
+        }
+        return floor;
+    }
+
+    private void appendGrouped(StringBuilder sb, long value) {
+        if (value < 1000) {
+            appendPadded(sb, value, 1);
+            return;
+        }
+        appendGrouped(sb, value / 1000);
+        sb.append(groupingSeparator);
+        appendPadded(sb, value % 1000, 3);
+    }
+
+    private void appendPadded(StringBuilder sb, long value, int width) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            sb.append(zeroDigit);
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            long d = value / POW10[i] % 10;
+            sb.append((char) (zeroDigit + d));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+// Re-reads a single rates file whenever its modification time changes
+public class FileRateProvider implements RateProvider {
+    private final Path file;
+    private FileTime lastModified;
+
+    public FileRateProvider(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, Double> fetchRates() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        if (modified.equals(lastModified)) {
+            return null;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Double> rates = RateProvider.parse(in, file.toString());
+            lastModified = modified;
+            return rates;
+        }
+    }
+}
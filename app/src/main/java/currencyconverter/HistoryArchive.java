@@ -0,0 +1,615 @@
+package currencyconverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar export format for a {@link HistoryStore}, for moving history between machines
+ * and for analysis without going through the table.
+ *
+ * Layout: a 32 byte header (magic, version, flags, rows per block, total rows), the code
+ * dictionary (count, then each code packed into 4 bytes), then blocks of up to
+ * {@value #BLOCK_ROWS} rows. A block is its row count and, per column, the stored and raw
+ * length of its chunk, followed by the chunks: timestamps (first value, then zigzag
+ * varint deltas), amounts and results (raw doubles), from and to currencies (2 byte
+ * dictionary IDs). With {@link #FLAG_DEFLATE} each chunk is deflated on its own, unless
+ * that does not make it smaller. Blocks are written with one gathering write and read
+ * back through a memory mapping, so a query decodes only the columns it needs and skips
+ * the rest by length.
+ */
+public final class HistoryArchive {
+    static final int MAGIC = 0x43434131; // "CCA1"
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BLOCK_ROWS = 8192;
+
+    static final int TIME = 0;
+    static final int AMOUNT = 1;
+    static final int RESULT = 2;
+    static final int FROM = 3;
+    static final int TO = 4;
+    private static final int COLUMNS = 5;
+    private static final int BLOCK_HEADER_SIZE = 4 + COLUMNS * 8;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final int MAX_PAIR_SLOTS = 1 << 22;
+
+    private HistoryArchive() {
+    }
+
+    /** Count and sums of one group of records. */
+    public static final class Totals {
+        private long count;
+        private double amount;
+        private double result;
+
+        void add(double amount, double result) {
+            count++;
+            this.amount += amount;
+            this.result += result;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double amount() {
+            return amount;
+        }
+
+        public double result() {
+            return result;
+        }
+    }
+
+    /**
+     * Command line entry point for {@code --history}; returns the process exit status.
+     * export and import work on the history file the app uses (-Dcurrency.history.file).
+     */
+    static int run(String[] args) {
+        if (args.length < 2) {
+            printUsage();
+            return 2;
+        }
+        String command = args[0];
+        Path archive = Paths.get(args[1]);
+        boolean deflate = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--deflate") && command.equals("export")) {
+                deflate = true;
+            } else {
+                System.err.println("ERROR: Unexpected argument: " + args[i]);
+                printUsage();
+                return 2;
+            }
+        }
+        try {
+            switch (command) {
+                case "export":
+                    try (HistoryStore store = HistoryStore.open(HistoryStore.defaultPath(),
+                            HistoryStore.defaultMaxRecords())) {
+                        long start = System.nanoTime();
+                        long rows = export(store, archive, deflate);
+                        System.err.printf("Exported %,d rows to %s (%,d bytes) in %.2f s%n", rows, archive,
+                                Files.size(archive), (System.nanoTime() - start) / 1e9);
+                    }
+                    return 0;
+                case "import":
+                    try (HistoryStore store = HistoryStore.open(HistoryStore.defaultPath(),
+                            HistoryStore.defaultMaxRecords())) {
+                        System.err.printf("Imported %,d rows into %s%n", importInto(archive, store), store.path());
+                    }
+                    return 0;
+                case "pairs":
+                    System.out.println("pair,count,amount,result");
+                    for (Map.Entry<String, Totals> pair : volumeByPair(archive).entrySet()) {
+                        Totals totals = pair.getValue();
+                        System.out.printf("%s,%d,%.2f,%.2f%n", pair.getKey(), totals.count(), totals.amount(),
+                                totals.result());
+                    }
+                    return 0;
+                case "hours":
+                    System.out.println("hour,count,usd_amount,usd_result");
+                    for (Map.Entry<Long, Totals> hour : volumeByHour(archive, DefaultRates.engine()).entrySet()) {
+                        Totals totals = hour.getValue();
+                        System.out.printf("%s,%d,%.2f,%.2f%n", Instant.ofEpochMilli(hour.getKey()), totals.count(),
+                                totals.amount(), totals.result());
+                    }
+                    return 0;
+                default:
+                    printUsage();
+                    return 2;
+            }
+        } catch (IOException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: CurrencyConverterApp --history export <archive> [--deflate]");
+        System.err.println("       CurrencyConverterApp --history import <archive>");
+        System.err.println("       CurrencyConverterApp --history pairs|hours <archive>");
+    }
+
+    // Writes every retained record of store to target; returns the number of rows written
+    public static long export(HistoryStore store, Path target, boolean deflate) throws IOException {
+        long first = store.firstIndex();
+        long rows = store.size();
+        long[] times = new long[BLOCK_ROWS];
+        double[] amounts = new double[BLOCK_ROWS];
+        double[] results = new double[BLOCK_ROWS];
+        int[] fromCodes = new int[BLOCK_ROWS];
+        int[] toCodes = new int[BLOCK_ROWS];
+
+        // First pass: the dictionary, so every block can use 2 byte IDs
+        Map<Integer, Integer> ids = new LinkedHashMap<>();
+        for (long index = first; index < first + rows; ) {
+            int n = store.read(index, BLOCK_ROWS, times, amounts, results, fromCodes, toCodes);
+            if (n == 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                ids.putIfAbsent(fromCodes[i], ids.size());
+                ids.putIfAbsent(toCodes[i], ids.size());
+            }
+            index += n;
+        }
+        if (ids.size() > 0xFFFF) {
+            throw new IOException("Too many distinct currencies for the archive format: " + ids.size());
+        }
+
+        Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+        ColumnWriter columns = new ColumnWriter(deflater);
+        long written = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE + 4 + ids.size() * HistoryStore.CODE_BYTES);
+            head.putInt(MAGIC).putInt(VERSION).putInt(deflate ? FLAG_DEFLATE : 0).putInt(BLOCK_ROWS)
+                    .putLong(0).putLong(0);
+            head.putInt(ids.size());
+            for (int code : ids.keySet()) {
+                head.putInt(code);
+            }
+            head.flip();
+            writeFully(out, head);
+
+            int[] fromIds = new int[BLOCK_ROWS];
+            int[] toIds = new int[BLOCK_ROWS];
+            for (long index = first; written < rows; ) {
+                int n = store.read(index, (int) Math.min(BLOCK_ROWS, rows - written),
+                        times, amounts, results, fromCodes, toCodes);
+                if (n == 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    Integer from = ids.get(fromCodes[i]);
+                    Integer to = ids.get(toCodes[i]);
+                    if (from == null || to == null) {
+                        throw new IOException("History was cleared during the export");
+                    }
+                    fromIds[i] = from;
+                    toIds[i] = to;
+                }
+                writeFully(out, columns.block(n, times, amounts, results, fromIds, toIds));
+                index += n;
+                written += n;
+            }
+
+            ByteBuffer total = ByteBuffer.allocate(8).putLong(written);
+            total.flip();
+            out.write(total, 16);
+            out.force(false);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return written;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= out.write(buffers);
+        }
+    }
+
+    // Appends every row of source to store; returns the number of rows imported
+    public static long importInto(Path source, HistoryStore store) throws IOException {
+        long imported = 0;
+        try (Reader reader = open(source)) {
+            int[] fromCodes = new int[BLOCK_ROWS];
+            int[] toCodes = new int[BLOCK_ROWS];
+            while (reader.next()) {
+                int n = reader.rows();
+                int[] fromIds = reader.fromIds();
+                int[] toIds = reader.toIds();
+                for (int i = 0; i < n; i++) {
+                    fromCodes[i] = reader.codeBits(fromIds[i]);
+                    toCodes[i] = reader.codeBits(toIds[i]);
+                }
+                store.appendAll(n, reader.epochMillis(), reader.amounts(), reader.results(), fromCodes, toCodes);
+                imported += n;
+            }
+        }
+        return imported;
+    }
+
+    // Count, amount (in FROM) and result (in TO) per "FROM/TO" pair, most converted first
+    public static Map<String, Totals> volumeByPair(Path source) throws IOException {
+        String[] codes;
+        Totals[] byPair;
+        try (Reader reader = open(source)) {
+            codes = reader.codes();
+            int n = codes.length;
+            if ((long) n * n > MAX_PAIR_SLOTS) {
+                throw new IOException("Too many currencies for per-pair totals: " + n);
+            }
+            // Dense by from * n + to: the dictionary holds only the codes actually used
+            byPair = new Totals[n * n];
+            while (reader.next()) {
+                int rows = reader.rows();
+                int[] fromIds = reader.fromIds();
+                int[] toIds = reader.toIds();
+                double[] amounts = reader.amounts();
+                double[] results = reader.results();
+                for (int i = 0; i < rows; i++) {
+                    int slot = fromIds[i] * n + toIds[i];
+                    Totals totals = byPair[slot];
+                    if (totals == null) {
+                        totals = byPair[slot] = new Totals();
+                    }
+                    totals.add(amounts[i], results[i]);
+                }
+            }
+        }
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < byPair.length; slot++) {
+            if (byPair[slot] != null) {
+                slots.add(slot);
+            }
+        }
+        slots.sort((a, b) -> Long.compare(byPair[b].count, byPair[a].count));
+        Map<String, Totals> sorted = new LinkedHashMap<>(slots.size() * 2);
+        for (int slot : slots) {
+            sorted.put(codes[slot / codes.length] + "/" + codes[slot % codes.length], byPair[slot]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Count and volume per UTC hour (keyed by the hour's epoch millis), amounts and results
+     * valued in USD at the rates of engine. Records with a currency engine does not know
+     * are counted but add no volume.
+     */
+    public static SortedMap<Long, Totals> volumeByHour(Path source, ConversionEngine engine) throws IOException {
+        SortedMap<Long, Totals> byHour = new TreeMap<>();
+        try (Reader reader = open(source)) {
+            String[] codes = reader.codes();
+            double[] usdPerUnit = new double[codes.length];
+            for (int id = 0; id < codes.length; id++) {
+                int engineId = engine.idOfCode(codes[id]);
+                usdPerUnit[id] = engineId < 0 ? 0 : 1 / engine.rate(engineId);
+            }
+            while (reader.next()) {
+                int n = reader.rows();
+                long[] times = reader.epochMillis();
+                int[] fromIds = reader.fromIds();
+                int[] toIds = reader.toIds();
+                double[] amounts = reader.amounts();
+                double[] results = reader.results();
+                Totals current = null;
+                long currentHour = Long.MIN_VALUE;
+                for (int i = 0; i < n; i++) {
+                    long hour = Math.floorDiv(times[i], HOUR_MILLIS) * HOUR_MILLIS;
+                    if (hour != currentHour) {
+                        currentHour = hour;
+                        current = byHour.computeIfAbsent(hour, key -> new Totals());
+                    }
+                    current.add(amounts[i] * usdPerUnit[fromIds[i]], results[i] * usdPerUnit[toIds[i]]);
+                }
+            }
+        }
+        return byHour;
+    }
+
+    public static Reader open(Path source) throws IOException {
+        return new Reader(source);
+    }
+
+    /**
+     * Block-at-a-time reader over a memory-mapped archive. Column accessors decode the
+     * current block's column on first call into arrays reused across blocks, so they are
+     * only valid until the next {@link #next()}.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer map;
+        private final boolean deflated;
+        private final long totalRows;
+        private final int[] codeBits;
+        private final String[] codes;
+        private final Inflater inflater = new Inflater();
+
+        private final long[] times = new long[BLOCK_ROWS];
+        private final double[] amounts = new double[BLOCK_ROWS];
+        private final double[] results = new double[BLOCK_ROWS];
+        private final int[] fromIds = new int[BLOCK_ROWS];
+        private final int[] toIds = new int[BLOCK_ROWS];
+        private final boolean[] decoded = new boolean[COLUMNS];
+        private final int[] storedLengths = new int[COLUMNS];
+        private final int[] rawLengths = new int[COLUMNS];
+        private final int[] chunkOffsets = new int[COLUMNS];
+        private ByteBuffer scratch = ByteBuffer.allocate(BLOCK_ROWS * 8);
+
+        private int nextBlock;
+        private int rows;
+
+        private Reader(Path source) throws IOException {
+            channel = FileChannel.open(source, StandardOpenOption.READ);
+            try {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("History archive too large: " + source);
+                }
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (map.limit() < HEADER_SIZE + 4 || map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                        || map.getInt(12) != BLOCK_ROWS) {
+                    throw new IOException("Not a history archive: " + source);
+                }
+                deflated = (map.getInt(8) & FLAG_DEFLATE) != 0;
+                totalRows = map.getLong(16);
+                int codeCount = map.getInt(HEADER_SIZE);
+                codeBits = new int[codeCount];
+                codes = new String[codeCount];
+                for (int id = 0; id < codeCount; id++) {
+                    codeBits[id] = map.getInt(HEADER_SIZE + 4 + id * HistoryStore.CODE_BYTES);
+                    codes[id] = HistoryStore.unpackCode(codeBits[id]);
+                }
+                nextBlock = HEADER_SIZE + 4 + codeCount * HistoryStore.CODE_BYTES;
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        }
+
+        public long totalRows() {
+            return totalRows;
+        }
+
+        // Currency codes by dictionary ID
+        public String[] codes() {
+            return codes.clone();
+        }
+
+        int codeBits(int id) {
+            return codeBits[id];
+        }
+
+        // Moves to the next block; false at the end of the archive
+        public boolean next() throws IOException {
+            if (nextBlock + BLOCK_HEADER_SIZE > map.limit()) {
+                rows = 0;
+                return false;
+            }
+            rows = map.getInt(nextBlock);
+            if (rows <= 0 || rows > BLOCK_ROWS) {
+                throw new IOException("Corrupt history archive block at " + nextBlock);
+            }
+            int offset = nextBlock + BLOCK_HEADER_SIZE;
+            for (int column = 0; column < COLUMNS; column++) {
+                storedLengths[column] = map.getInt(nextBlock + 4 + column * 8);
+                rawLengths[column] = map.getInt(nextBlock + 8 + column * 8);
+                chunkOffsets[column] = offset;
+                offset += storedLengths[column];
+            }
+            if (offset > map.limit()) {
+                throw new IOException("Truncated history archive block at " + nextBlock);
+            }
+            nextBlock = offset;
+            Arrays.fill(decoded, false);
+            return true;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public long[] epochMillis() throws IOException {
+            if (!decoded[TIME]) {
+                ByteBuffer chunk = chunk(TIME);
+                long value = chunk.getLong();
+                times[0] = value;
+                for (int i = 1; i < rows; i++) {
+                    long zigzag = readVarLong(chunk);
+                    value += (zigzag >>> 1) ^ -(zigzag & 1);
+                    times[i] = value;
+                }
+                decoded[TIME] = true;
+            }
+            return times;
+        }
+
+        public double[] amounts() throws IOException {
+            return doubles(AMOUNT, amounts);
+        }
+
+        public double[] results() throws IOException {
+            return doubles(RESULT, results);
+        }
+
+        public int[] fromIds() throws IOException {
+            return ids(FROM, fromIds);
+        }
+
+        public int[] toIds() throws IOException {
+            return ids(TO, toIds);
+        }
+
+        private double[] doubles(int column, double[] values) throws IOException {
+            if (!decoded[column]) {
+                chunk(column).asDoubleBuffer().get(values, 0, rows);
+                decoded[column] = true;
+            }
+            return values;
+        }
+
+        private int[] ids(int column, int[] values) throws IOException {
+            if (!decoded[column]) {
+                ByteBuffer chunk = chunk(column);
+                for (int i = 0; i < rows; i++) {
+                    int id = chunk.getShort() & 0xFFFF;
+                    if (id >= codes.length) {
+                        throw new IOException("Currency ID " + id + " outside the archive dictionary");
+                    }
+                    values[i] = id;
+                }
+                decoded[column] = true;
+            }
+            return values;
+        }
+
+        // A view of the mapped chunk when stored raw, otherwise its inflated copy
+        private ByteBuffer chunk(int column) throws IOException {
+            if (rows == 0) {
+                throw new IllegalStateException("No current block");
+            }
+            ByteBuffer stored = map.duplicate();
+            stored.position(chunkOffsets[column]).limit(chunkOffsets[column] + storedLengths[column]);
+            stored = stored.slice();
+            if (!deflated || storedLengths[column] == rawLengths[column]) {
+                return stored;
+            }
+            if (scratch.capacity() < rawLengths[column]) {
+                scratch = ByteBuffer.allocate(rawLengths[column]);
+            }
+            scratch.clear().limit(rawLengths[column]);
+            inflater.reset();
+            inflater.setInput(stored);
+            try {
+                while (scratch.hasRemaining() && !inflater.finished()) {
+                    if (inflater.inflate(scratch) == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                }
+            } catch (DataFormatException ex) {
+                throw new IOException("Corrupt history archive chunk", ex);
+            }
+            if (scratch.hasRemaining()) {
+                throw new IOException("Truncated history archive chunk");
+            }
+            return scratch.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Encodes one block into reused buffers; block() returns them ready for a gathering write
+    private static final class ColumnWriter {
+        private final Deflater deflater;
+        private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        private final ByteBuffer[] raw = new ByteBuffer[COLUMNS];
+        private final ByteBuffer[] packed = new ByteBuffer[COLUMNS];
+        private final ByteBuffer[] out = new ByteBuffer[COLUMNS + 1];
+
+        ColumnWriter(Deflater deflater) {
+            this.deflater = deflater;
+            // Worst case per column: 10 byte varints for the time deltas, 8 byte doubles
+            int[] capacities = { BLOCK_ROWS * 10, BLOCK_ROWS * 8, BLOCK_ROWS * 8, BLOCK_ROWS * 2, BLOCK_ROWS * 2 };
+            for (int column = 0; column < COLUMNS; column++) {
+                raw[column] = ByteBuffer.allocate(capacities[column]);
+                packed[column] = ByteBuffer.allocate(capacities[column]);
+            }
+        }
+
+        ByteBuffer[] block(int rows, long[] times, double[] amounts, double[] results, int[] fromIds, int[] toIds) {
+            for (ByteBuffer buffer : raw) {
+                buffer.clear();
+            }
+            raw[TIME].putLong(times[0]);
+            for (int i = 1; i < rows; i++) {
+                long delta = times[i] - times[i - 1];
+                putVarLong(raw[TIME], (delta << 1) ^ (delta >> 63));
+            }
+            for (int i = 0; i < rows; i++) {
+                raw[AMOUNT].putDouble(amounts[i]);
+                raw[RESULT].putDouble(results[i]);
+                raw[FROM].putShort((short) fromIds[i]);
+                raw[TO].putShort((short) toIds[i]);
+            }
+
+            header.clear();
+            header.putInt(rows);
+            for (int column = 0; column < COLUMNS; column++) {
+                ByteBuffer chunk = raw[column].flip();
+                int rawLength = chunk.remaining();
+                if (deflater != null) {
+                    ByteBuffer compressed = deflate(column, chunk);
+                    if (compressed != null && compressed.remaining() < rawLength) {
+                        chunk = compressed;
+                    }
+                }
+                header.putInt(chunk.remaining()).putInt(rawLength);
+                out[column + 1] = chunk;
+            }
+            out[0] = header.flip();
+            return out;
+        }
+
+        // Null when the deflated chunk would be no smaller than the raw one
+        private ByteBuffer deflate(int column, ByteBuffer chunk) {
+            ByteBuffer target = packed[column].clear();
+            deflater.reset();
+            deflater.setInput(chunk.duplicate());
+            deflater.finish();
+            while (!deflater.finished() && target.hasRemaining()) {
+                deflater.deflate(target);
+            }
+            return deflater.finished() ? target.flip() : null;
+        }
+
+        private static void putVarLong(ByteBuffer out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.put((byte) value);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package currencyconverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary conversion log with a retention cap.
+ *
+ * Layout: a 64 byte header followed by fixed 32 byte records
+ * (epoch millis, amount, result, from code, to code). Records are appended with
+ * positional channel writes and read back with positional reads a block of records at a
+ * time, so the file is never mapped and can be truncated or replaced on any platform.
+ * Rows are addressed by an absolute index that never changes for a record, so callers
+ * can cache by it; trimming just advances the first retained index and the file is
+ * compacted once the dead prefix is as large as the cap. Compaction runs on a background
+ * thread and copies the bulk of the file without holding the lock, so appends and reads,
+ * including those on the EDT, do not wait for it.
+ */
+public class HistoryStore implements Closeable {
+    static final int MAGIC = 0x43434831; // "CCH1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+    static final int CODE_BYTES = 4;
+    static final int BLOCK_RECORDS = 256;
+
+    private static final int BASE_INDEX_OFFSET = 16;
+    private static final int FIRST_INDEX_OFFSET = 24;
+
+    private final Path path;
+    private final int maxRecords;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_SIZE);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(16);
+    // Records [blockIndex, blockIndex + blockCount) as last read from the file
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+    private long blockIndex;
+    private int blockCount;
+
+    private FileChannel channel;
+    // Absolute index of the file's first physical record, and of the first retained one
+    private long baseIndex;
+    private long firstIndex;
+    private long endIndex;
+    // Bumped by clear() and by each swap, so a compaction can tell its source went stale
+    private long generation;
+    private boolean compacting;
+
+    private HistoryStore(Path path, int maxRecords) {
+        this.path = path;
+        this.maxRecords = maxRecords;
+    }
+
+    // -Dcurrency.history.file, default ~/.currency-converter/history.bin
+    public static Path defaultPath() {
+        String fallback = Paths.get(System.getProperty("user.home"), ".currency-converter", "history.bin").toString();
+        return Paths.get(System.getProperty("currency.history.file", fallback));
+    }
+
+    // -Dcurrency.history.max
+    public static int defaultMaxRecords() {
+        return Integer.getInteger("currency.history.max", 100_000);
+    }
+
+    public static HistoryStore open(Path path, int maxRecords) throws IOException {
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("maxRecords must be positive");
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        HistoryStore store = new HistoryStore(path, maxRecords);
+        store.openChannel();
+        store.trim();
+        return store;
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        blockCount = 0;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            writeHeader(0, 0);
+            channel.truncate(HEADER_SIZE);
+            baseIndex = firstIndex = endIndex = 0;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != RECORD_SIZE) {
+            throw new IOException("Not a conversion history file: " + path);
+        }
+        baseIndex = header.getLong(BASE_INDEX_OFFSET);
+        firstIndex = header.getLong(FIRST_INDEX_OFFSET);
+
+        // Drop a torn record left behind by a crash mid-append
+        long records = (size - HEADER_SIZE) / RECORD_SIZE;
+        if (HEADER_SIZE + records * RECORD_SIZE != size) {
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        }
+        endIndex = baseIndex + records;
+        if (firstIndex < baseIndex || firstIndex > endIndex) {
+            firstIndex = baseIndex;
+        }
+    }
+
+    private void writeHeader(long base, long first) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+        header.putLong(base).putLong(first);
+        header.clear();
+        channel.write(header, 0);
+    }
+
+    private void writeIndexes() throws IOException {
+        indexBuffer.clear();
+        indexBuffer.putLong(baseIndex).putLong(firstIndex).flip();
+        channel.write(indexBuffer, BASE_INDEX_OFFSET);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int maxRecords() {
+        return maxRecords;
+    }
+
+    public synchronized int size() {
+        return (int) (endIndex - firstIndex);
+    }
+
+    // Absolute index of row 0
+    public synchronized long firstIndex() {
+        return firstIndex;
+    }
+
+    // Returns the number of records dropped from the front to honour the retention cap
+    public synchronized int append(long epochMillis, double amount, String fromCode, String toCode,
+            double result) throws IOException {
+        recordBuffer.clear();
+        recordBuffer.putLong(epochMillis).putDouble(amount).putDouble(result);
+        putCode(fromCode);
+        putCode(toCode);
+        recordBuffer.flip();
+        channel.write(recordBuffer, HEADER_SIZE + (endIndex - baseIndex) * RECORD_SIZE);
+        endIndex++;
+        return trim();
+    }
+
+    private void putCode(String code) {
+        recordBuffer.putInt(packCode(code));
+    }
+
+    // Up to four ASCII bytes, zero padded, as stored in a record
+    static int packCode(String code) {
+        int bits = 0;
+        for (int i = 0; i < CODE_BYTES; i++) {
+            bits = bits << 8 | (i < code.length() ? code.charAt(i) & 0xFF : 0);
+        }
+        return bits;
+    }
+
+    static String unpackCode(int bits) {
+        StringBuilder code = new StringBuilder(CODE_BYTES);
+        for (int shift = 24; shift >= 0 && (bits >>> shift & 0xFF) != 0; shift -= 8) {
+            code.append((char) (bits >>> shift & 0xFF));
+        }
+        return code.toString();
+    }
+
+    /**
+     * Appends count records in one write, codes packed as by {@link #packCode}. Returns the
+     * number of records dropped from the front to honour the retention cap.
+     */
+    public synchronized int appendAll(int count, long[] epochMillis, double[] amounts, double[] results,
+            int[] fromCodes, int[] toCodes) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+        for (int i = 0; i < count; i++) {
+            records.putLong(epochMillis[i]).putDouble(amounts[i]).putDouble(results[i])
+                    .putInt(fromCodes[i]).putInt(toCodes[i]);
+        }
+        records.flip();
+        long position = HEADER_SIZE + (endIndex - baseIndex) * RECORD_SIZE;
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        endIndex += count;
+        return trim();
+    }
+
+    /**
+     * Copies up to count retained records starting at absolute index into the arrays,
+     * codes packed as by {@link #packCode}. Returns the number copied.
+     */
+    public synchronized int read(long index, int count, long[] epochMillis, double[] amounts, double[] results,
+            int[] fromCodes, int[] toCodes) throws IOException {
+        if (index < firstIndex) {
+            throw new IndexOutOfBoundsException("History record " + index + " is not retained");
+        }
+        int n = (int) Math.max(0, Math.min(count, endIndex - index));
+        for (int i = 0; i < n; i++) {
+            int offset = offsetOf(index + i);
+            epochMillis[i] = block.getLong(offset);
+            amounts[i] = block.getDouble(offset + 8);
+            results[i] = block.getDouble(offset + 16);
+            fromCodes[i] = block.getInt(offset + 24);
+            toCodes[i] = block.getInt(offset + 24 + CODE_BYTES);
+        }
+        return n;
+    }
+
+    private int trim() throws IOException {
+        long excess = endIndex - firstIndex - maxRecords;
+        if (excess <= 0) {
+            return 0;
+        }
+        firstIndex += excess;
+        writeIndexes();
+        if (firstIndex - baseIndex >= maxRecords && !compacting) {
+            compacting = true;
+            Thread compactor = new Thread(this::compactInBackground, "history-compaction");
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+        return (int) excess;
+    }
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (IOException ex) {
+            // The store keeps working on the uncompacted file; the next trim retries
+            ex.printStackTrace();
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Rewrites the retained records into a fresh file and swaps it in. The records present
+     * at the start are copied without the lock; those appended meanwhile are copied under
+     * it, just before the swap. If the swap fails the original file is reopened, so the
+     * store keeps working either way.
+     */
+    void compact() throws IOException {
+        FileChannel source;
+        long base;
+        long from;
+        long to;
+        long startGeneration;
+        synchronized (this) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            source = channel;
+            base = baseIndex;
+            from = firstIndex;
+            to = endIndex;
+            startGeneration = generation;
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            // A record is copied to the same offset relative to the new base
+            boolean complete = copyRecords(source, out, base, from, from, to);
+            synchronized (this) {
+                if (!complete || generation != startGeneration || !channel.isOpen()) {
+                    out.close();
+                    Files.deleteIfExists(tmp);
+                    return;
+                }
+                copyRecords(source, out, base, from, to, endIndex);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+                header.putLong(from).putLong(firstIndex);
+                header.clear();
+                out.write(header, 0);
+                out.force(false);
+                out.close();
+                swap(tmp);
+            }
+        } finally {
+            if (out.isOpen()) {
+                out.close();
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    // Copies records [first, last) into out, whose first record is newBase; false if the
+    // source ended early, as when the store was cleared meanwhile
+    private static boolean copyRecords(FileChannel source, FileChannel out, long base, long newBase,
+            long first, long last) throws IOException {
+        long position = HEADER_SIZE + (first - base) * RECORD_SIZE;
+        long target = HEADER_SIZE + (first - newBase) * RECORD_SIZE;
+        long remaining = (last - first) * RECORD_SIZE;
+        out.position(target);
+        while (remaining > 0) {
+            long n = source.transferTo(position, remaining, out);
+            if (n <= 0) {
+                return false;
+            }
+            position += n;
+            remaining -= n;
+        }
+        return true;
+    }
+
+    // Called with the lock held and the compacted file closed. The channel is closed first
+    // so the replace also works where open files cannot be replaced.
+    private void swap(Path tmp) throws IOException {
+        channel.close();
+        generation++;
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            openChannel();
+            throw ex;
+        }
+        openChannel();
+    }
+
+    public synchronized void clear() throws IOException {
+        generation++;
+        blockCount = 0;
+        channel.truncate(HEADER_SIZE);
+        baseIndex = firstIndex = endIndex = 0;
+        writeIndexes();
+    }
+
+    public synchronized long epochMillis(long index) throws IOException {
+        return block.getLong(offsetOf(index));
+    }
+
+    public synchronized double amount(long index) throws IOException {
+        return block.getDouble(offsetOf(index) + 8);
+    }
+
+    public synchronized double result(long index) throws IOException {
+        return block.getDouble(offsetOf(index) + 16);
+    }
+
+    public synchronized String fromCode(long index) throws IOException {
+        return code(block, offsetOf(index) + 24);
+    }
+
+    public synchronized String toCode(long index) throws IOException {
+        return code(block, offsetOf(index) + 24 + CODE_BYTES);
+    }
+
+    // Offset of the record within the block, reading the block that holds it if need be
+    private int offsetOf(long index) throws IOException {
+        if (index < firstIndex || index >= endIndex) {
+            throw new IndexOutOfBoundsException("History record " + index + " is not retained");
+        }
+        if (index < blockIndex || index >= blockIndex + blockCount) {
+            readBlock(index);
+        }
+        return (int) (index - blockIndex) * RECORD_SIZE;
+    }
+
+    // Aligned blocks, so rows painted in order hit the same block and appends only
+    // re-read the tail block
+    private void readBlock(long index) throws IOException {
+        blockIndex = Math.max(firstIndex, index - Math.floorMod(index, (long) BLOCK_RECORDS));
+        int count = (int) Math.min(BLOCK_RECORDS, endIndex - blockIndex);
+        block.clear().limit(count * RECORD_SIZE);
+        long position = HEADER_SIZE + (blockIndex - baseIndex) * RECORD_SIZE;
+        while (block.hasRemaining()) {
+            if (channel.read(block, position + block.position()) < 0) {
+                throw new IOException("History file truncated: " + path);
+            }
+        }
+        block.clear();
+        blockCount = count;
+    }
+
+    private static String code(ByteBuffer buf, int offset) {
+        int length = 0;
+        while (length < CODE_BYTES && buf.get(offset + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        blockCount = 0;
+        channel.force(false);
+        channel.close();
+    }
+}
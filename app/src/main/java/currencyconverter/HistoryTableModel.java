@@ -0,0 +1,125 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only table view over a {@link HistoryStore}. Rows are formatted lazily a page
+ * at a time and only a bounded number of pages are kept, so the heap cost does not grow
+ * with the size of the log.
+ */
+public class HistoryTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = { "Time", "Amount", "From", "To", "Result" };
+    private static final int PAGE_SIZE = 128;
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final HistoryStore store;
+    private final FastFormat format;
+    private final StringBuilder text = new StringBuilder(32);
+    private ConversionEngine engine;
+
+    // Keyed by absolute record index / PAGE_SIZE so trimming the front does not invalidate pages
+    private final Map<Long, String[][]> pages = new LinkedHashMap<Long, String[][]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String[][]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    public HistoryTableModel(HistoryStore store, ConversionEngine engine, FastFormat format) {
+        this.store = store;
+        this.engine = engine;
+        this.format = format;
+    }
+
+    public HistoryStore store() {
+        return store;
+    }
+
+    public void setEngine(ConversionEngine engine) {
+        this.engine = engine;
+        pages.clear();
+        fireTableDataChanged();
+    }
+
+    public void append(long epochMillis, double amount, String fromCode, String toCode, double result)
+            throws IOException {
+        int trimmed = store.append(epochMillis, amount, fromCode, toCode, result);
+        if (trimmed > 0) {
+            fireTableRowsDeleted(0, trimmed - 1);
+        }
+        int row = store.size() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    // After rows were written to the store directly, e.g. by an import
+    public void reload() {
+        pages.clear();
+        fireTableDataChanged();
+    }
+
+    public void clear() throws IOException {
+        store.clear();
+        pages.clear();
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return store.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        long index = store.firstIndex() + row;
+        long pageKey = index / PAGE_SIZE;
+        String[][] page = pages.get(pageKey);
+        if (page == null) {
+            page = new String[PAGE_SIZE][];
+            pages.put(pageKey, page);
+        }
+        int slot = (int) (index % PAGE_SIZE);
+        if (page[slot] == null) {
+            try {
+                page[slot] = formatRow(index);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return page[slot][column];
+    }
+
+    private String[] formatRow(long index) throws IOException {
+        text.setLength(0);
+        String time = format.appendTime(text, store.epochMillis(index)).toString();
+        text.setLength(0);
+        String amount = format.appendAmount(text, store.amount(index)).toString();
+        text.setLength(0);
+        String result = format.appendAmount(text, store.result(index)).toString();
+        return new String[] {
+                time,
+                amount,
+                labelOf(store.fromCode(index)),
+                labelOf(store.toCode(index)),
+                result
+        };
+    }
+
+    private String labelOf(String code) {
+        int id = engine.idOfCode(code);
+        return id < 0 ? code : engine.label(id);
+    }
+}
@@ -0,0 +1,58 @@
+package currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+// Polls an HTTP endpoint serving the CODE=rate format, using ETags to skip unchanged bodies
+public class HttpRateProvider implements RateProvider {
+    private final URI uri;
+    private final HttpClient client;
+    private String etag;
+
+    public HttpRateProvider(URI uri) {
+        this.uri = uri;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    @Override
+    public Map<String, Double> fetchRates() throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(2))
+                .GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + uri, ex);
+        }
+
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() == 304) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException(uri + " returned HTTP " + response.statusCode());
+            }
+            Map<String, Double> rates = RateProvider.parse(in, uri.toString());
+            etag = response.headers().firstValue("ETag").orElse(null);
+            return rates;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package currencyconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Backing model for the Leaderboard table, strongest currency first. Ranks come from a
+ * {@link RankIndex}, so a rate refresh moves only the currencies whose rate changed and
+ * fires {@code rowsUpdated} for just the rows that shifted. Strength-band counts are kept
+ * in step with every move.
+ */
+public class LeaderboardTableModel extends AbstractTableModel {
+    static final int RANK_COLUMN = 0;
+    static final int CURRENCY_COLUMN = 1;
+    static final int VALUE_COLUMN = 2;
+    static final int STRENGTH_COLUMN = 3;
+
+    static final String[] BANDS = { "Very Strong", "Strong", "Moderate", "Weak", "Very Weak" };
+
+    private static final String[] COLUMNS = { "Rank", "Currency", "Value (per 1 USD)", "Strength" };
+
+    private final FastFormat format;
+    private final StringBuilder text = new StringBuilder(32);
+    private final int[] bandCounts = new int[BANDS.length];
+    private final BitSet dirtyRows = new BitSet();
+    private ConversionEngine engine;
+    private RankIndex index;
+
+    public LeaderboardTableModel(ConversionEngine engine, FastFormat format) {
+        this.format = format;
+        rebuild(engine);
+    }
+
+    // Band boundaries: < 1, < 10, < 100, < 1000, and above, in units per 1 USD
+    static int bandOf(double rate) {
+        if (rate < 1.0) {
+            return 0;
+        } else if (rate < 10.0) {
+            return 1;
+        } else if (rate < 100.0) {
+            return 2;
+        } else if (rate < 1000.0) {
+            return 3;
+        } else {
+            return 4;
+        }
+    }
+
+    static String strengthOf(double rate) {
+        return BANDS[bandOf(rate)];
+    }
+
+    // Rank, currency, formatted rate and strength band, strongest first
+    static List<Object[]> rows(ConversionEngine engine, FastFormat format) {
+        // Sort currencies by exchange rate (ascending = stronger)
+        List<Map.Entry<String, Double>> sortedCurrencies = new ArrayList<>(engine.toRateMap().entrySet());
+        sortedCurrencies.sort(Map.Entry.comparingByValue());
+
+        List<Object[]> rows = new ArrayList<>(sortedCurrencies.size());
+        StringBuilder text = new StringBuilder(32);
+        int rank = 1;
+        for (Map.Entry<String, Double> entry : sortedCurrencies) {
+            double rate = entry.getValue();
+            text.setLength(0);
+            rows.add(new Object[] {
+                    rank++,
+                    entry.getKey(),
+                    format.appendAmount(text, rate).toString(),
+                    strengthOf(rate)
+            });
+        }
+        return rows;
+    }
+
+    public void update(ConversionEngine next) {
+        update(next, null);
+    }
+
+    // changedIds lists the only currencies whose rate may differ, or null to check them all
+    public void update(ConversionEngine next, int[] changedIds) {
+        if (!next.hasSameCurrencies(engine)) {
+            rebuild(next);
+            fireTableDataChanged();
+            return;
+        }
+        engine = next;
+
+        if (changedIds == null) {
+            for (int id = 0; id < next.size(); id++) {
+                move(id, next.rate(id));
+            }
+        } else {
+            for (int id : changedIds) {
+                move(id, next.rate(id));
+            }
+        }
+
+        for (int first = dirtyRows.nextSetBit(0); first >= 0; ) {
+            int end = dirtyRows.nextClearBit(first);
+            fireTableRowsUpdated(first, end - 1);
+            first = dirtyRows.nextSetBit(end);
+        }
+        dirtyRows.clear();
+    }
+
+    private void move(int id, double rate) {
+        double previous = index.keyOf(id);
+        if (Double.doubleToLongBits(previous) == Double.doubleToLongBits(rate)) {
+            return;
+        }
+        int oldRank = index.rankOf(id);
+        index.update(id, rate);
+        int newRank = index.rankOf(id);
+        // Everything between the old and the new position shifted by one
+        dirtyRows.set(Math.min(oldRank, newRank), Math.max(oldRank, newRank) + 1);
+        bandCounts[bandOf(previous)]--;
+        bandCounts[bandOf(rate)]++;
+    }
+
+    private void rebuild(ConversionEngine next) {
+        engine = next;
+        index = new RankIndex(next.size());
+        Arrays.fill(bandCounts, 0);
+        for (int id = 0; id < next.size(); id++) {
+            index.insert(id, next.rate(id));
+            bandCounts[bandOf(next.rate(id))]++;
+        }
+    }
+
+    public int bandCount(int band) {
+        return bandCounts[band];
+    }
+
+    public int bandAt(int row) {
+        return bandOf(engine.rate(index.idAt(row)));
+    }
+
+    public int currencyAt(int row) {
+        return index.idAt(row);
+    }
+
+    public int rowOf(int currencyId) {
+        return index.rankOf(currencyId);
+    }
+
+    @Override
+    public int getRowCount() {
+        return index.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == RANK_COLUMN) {
+            return row + 1;
+        }
+        int id = index.idAt(row);
+        switch (column) {
+            case CURRENCY_COLUMN:
+                return engine.label(id);
+            case VALUE_COLUMN:
+                text.setLength(0);
+                return format.appendAmount(text, engine.rate(id)).toString();
+            default:
+                return BANDS[bandOf(engine.rate(id))];
+        }
+    }
+}
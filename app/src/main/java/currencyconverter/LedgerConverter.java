@@ -0,0 +1,657 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming re-pricer for CSV and NDJSON ledger exports that do not fit in the heap.
+ * Input is read through fixed-size chunks, amounts are parsed straight from the bytes
+ * and every line is written back with the converted amount appended, so memory use is
+ * bounded by the two buffers regardless of file size.
+ */
+public class LedgerConverter {
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    enum Format { CSV, NDJSON }
+
+    private final ConversionEngine engine;
+    private final Format format;
+    private final int fromId;
+    private final int toId;
+    private final int amountColumn;
+    private final int currencyColumn;
+    private final byte[] amountKey;
+    private final byte[] amountName;
+    private final byte[] currencyKey;
+    private final byte[] outputSuffix;
+    private final int decimals;
+    private final long decimalScale;
+    private final int[] idsByCode = new int[26 * 26 * 26];
+    private final byte[] digits = new byte[20];
+    private final PrintStream progress;
+
+    private ByteBuffer out;
+    private FileChannel outChannel;
+    private long rows;
+    private long errors;
+    private boolean firstLine = true;
+
+    // Set while parsing a line; avoids returning a pair from the field scanners
+    private int fieldStart;
+    private int fieldEnd;
+
+    LedgerConverter(ConversionEngine engine, Format format, int fromId, int toId,
+            int amountColumn, int currencyColumn, String amountField, String currencyField,
+            int decimals, PrintStream progress) {
+        this.engine = engine;
+        this.format = format;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amountColumn = amountColumn;
+        this.currencyColumn = currencyColumn;
+        this.amountKey = quotedKey(amountField);
+        this.amountName = amountField.getBytes(StandardCharsets.UTF_8);
+        this.currencyKey = currencyField == null ? null : quotedKey(currencyField);
+        this.decimals = decimals;
+        this.decimalScale = (long) POW10[decimals];
+        this.progress = progress;
+
+        String target = engine.code(toId);
+        String suffix = format == Format.CSV
+                ? ","
+                : ",\"amount_" + target.toLowerCase() + "\":";
+        this.outputSuffix = suffix.getBytes(StandardCharsets.US_ASCII);
+
+        for (int id = 0; id < engine.size(); id++) {
+            String code = engine.code(id);
+            if (code.length() == 3) {
+                int key = codeKey(code.charAt(0), code.charAt(1), code.charAt(2));
+                if (key >= 0) {
+                    idsByCode[key] = id + 1;
+                }
+            }
+        }
+    }
+
+    public static int run(String[] args) {
+        String input = null;
+        String output = null;
+        String from = "USD";
+        String to = null;
+        Format format = null;
+        int amountColumn = 0;
+        int currencyColumn = -1;
+        String amountField = "amount";
+        String currencyField = null;
+        int decimals = 2;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--from":
+                        from = args[++i];
+                        break;
+                    case "--to":
+                        to = args[++i];
+                        break;
+                    case "--format":
+                        format = Format.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--amount-column":
+                        amountColumn = Integer.parseInt(args[++i]);
+                        break;
+                    case "--currency-column":
+                        currencyColumn = Integer.parseInt(args[++i]);
+                        break;
+                    case "--amount-field":
+                        amountField = args[++i];
+                        break;
+                    case "--currency-field":
+                        currencyField = args[++i];
+                        break;
+                    case "--decimals":
+                        decimals = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        if (input == null) {
+                            input = args[i];
+                        } else if (output == null) {
+                            output = args[i];
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                }
+            }
+            if (input == null || output == null || to == null) {
+                throw new IllegalArgumentException("Input, output and --to are required");
+            }
+            if (decimals < 0 || decimals > 9) {
+                throw new IllegalArgumentException("--decimals must be between 0 and 9");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        if (format == null) {
+            format = input.toLowerCase().endsWith(".csv") ? Format.CSV : Format.NDJSON;
+        }
+
+        ConversionEngine engine = DefaultRates.engine();
+        int fromId = engine.idOfCode(from);
+        int toId = engine.idOfCode(to);
+        if (fromId < 0 || toId < 0) {
+            System.err.println("ERROR: Unknown currency " + (fromId < 0 ? from : to));
+            return 2;
+        }
+
+        LedgerConverter converter = new LedgerConverter(engine, format, fromId, toId,
+                amountColumn, currencyColumn, amountField, currencyField, decimals, System.err);
+        try {
+            converter.convert(Paths.get(input), Paths.get(output));
+            return converter.errors == 0 ? 0 : 1;
+        } catch (IOException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: CurrencyConverterApp --batch <input> <output> --to <ISO> [--from <ISO>]");
+        System.err.println("         [--format csv|ndjson] [--decimals n]");
+        System.err.println("         [--amount-column n] [--currency-column n]      (csv)");
+        System.err.println("         [--currency-field name]                        (ndjson)");
+        System.err.println("         [--amount-field name]     (ndjson key, csv header name)");
+    }
+
+    void convert(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        long lastReport = start;
+        long bytesRead = 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel outCh = FileChannel.open(output, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long total = in.size();
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            out = ByteBuffer.allocate(BUFFER_SIZE);
+            outChannel = outCh;
+
+            boolean eof = false;
+            while (!eof) {
+                int n = in.read(buf);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    bytesRead += n;
+                }
+                buf.flip();
+
+                int lineStart = buf.position();
+                int limit = buf.limit();
+                for (int i = lineStart; i < limit; i++) {
+                    if (buf.get(i) == '\n') {
+                        processLine(buf, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (eof && lineStart < limit) {
+                    processLine(buf, lineStart, limit);
+                    lineStart = limit;
+                }
+                if (lineStart == buf.position() && limit == buf.capacity()) {
+                    throw new IOException("Line longer than " + BUFFER_SIZE + " bytes");
+                }
+                buf.position(lineStart);
+                buf.compact();
+
+                long now = System.nanoTime();
+                if (progress != null && now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    progress.printf("  %,d MB / %,d MB (%.1f%%), %,d rows%n",
+                            bytesRead >> 20, total >> 20,
+                            total == 0 ? 100.0 : bytesRead * 100.0 / total, rows);
+                }
+            }
+            flush();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (progress != null) {
+            progress.printf("Converted %,d rows (%,d errors) in %.2f s: %.1f MB/s, %,.0f rows/s%n",
+                    rows, errors, seconds, bytesRead / 1048576.0 / seconds, rows / seconds);
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    private void processLine(ByteBuffer buf, int start, int end) throws IOException {
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+
+        // A CSV header row, named by the amount column, is passed through with the new
+        // column name appended
+        boolean header = firstLine;
+        firstLine = false;
+        if (header && format == Format.CSV && findCsvField(buf, start, end, amountColumn)
+                && namesAmount(buf, fieldStart, fieldEnd)) {
+            copy(buf, start, end);
+            put(outputSuffix, 0, outputSuffix.length);
+            put(("amount_" + engine.code(toId).toLowerCase()).getBytes(StandardCharsets.US_ASCII));
+            putByte((byte) '\n');
+            return;
+        }
+
+        int rowFromId = fromId;
+        double amount = Double.NaN;
+        if (format == Format.CSV) {
+            if (findCsvField(buf, start, end, amountColumn)) {
+                amount = parseAmount(buf, fieldStart, fieldEnd);
+            }
+            if (currencyColumn >= 0) {
+                rowFromId = findCsvField(buf, start, end, currencyColumn)
+                        ? lookupCode(buf, fieldStart, fieldEnd) : -1;
+            }
+        } else {
+            if (findJsonValue(buf, start, end, amountKey)) {
+                amount = parseAmount(buf, fieldStart, fieldEnd);
+            }
+            if (currencyKey != null) {
+                rowFromId = findJsonValue(buf, start, end, currencyKey)
+                        ? lookupCode(buf, fieldStart, fieldEnd) : -1;
+            }
+        }
+
+        int insertAt = end;
+        boolean members = true;
+        if (format == Format.NDJSON) {
+            while (insertAt > start && buf.get(insertAt - 1) != '}') {
+                insertAt--;
+            }
+            insertAt = insertAt > start ? insertAt - 1 : end;
+            int last = insertAt - 1;
+            while (last >= start && isBlank(buf.get(last))) {
+                last--;
+            }
+            // {} takes the new field without a separating comma
+            members = last < start || buf.get(last) != '{';
+        }
+        copy(buf, start, insertAt);
+        if (members) {
+            put(outputSuffix, 0, outputSuffix.length);
+        } else {
+            put(outputSuffix, 1, outputSuffix.length - 1);
+        }
+
+        if (Double.isNaN(amount) || rowFromId < 0) {
+            errors++;
+            if (format == Format.NDJSON) {
+                put(NULL_BYTES);
+            }
+        } else {
+            writeFixed(engine.convert(amount, rowFromId, toId));
+            rows++;
+        }
+        copy(buf, insertAt, end);
+        putByte((byte) '\n');
+    }
+
+    private static final byte[] NULL_BYTES = { 'n', 'u', 'l', 'l' };
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    // The field, unquoted and ignoring case and surrounding blanks, is the amount column's name
+    private boolean namesAmount(ByteBuffer buf, int start, int end) {
+        while (start < end && isBlank(buf.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(buf.get(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && buf.get(start) == '"' && buf.get(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (end - start != amountName.length) {
+            return false;
+        }
+        for (int i = 0; i < amountName.length; i++) {
+            if (Character.toLowerCase(buf.get(start + i)) != Character.toLowerCase(amountName[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean findCsvField(ByteBuffer buf, int start, int end, int column) {
+        int field = 0;
+        int fs = start;
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                if (field == column) {
+                    fieldStart = fs;
+                    fieldEnd = i;
+                    return true;
+                }
+                field++;
+                fs = i + 1;
+            }
+        }
+        if (field == column) {
+            fieldStart = fs;
+            fieldEnd = end;
+            return true;
+        }
+        return false;
+    }
+
+    // Finds key among the members of the line's top-level object: only a string in key
+    // position at depth 1 followed by ':' matches, so keys inside nested values and string
+    // values that happen to read like the key are skipped. Sets fieldStart/fieldEnd to the
+    // value, quotes included.
+    private boolean findJsonValue(ByteBuffer buf, int start, int end, byte[] key) {
+        int depth = 0;
+        boolean object = false;
+        boolean keyPosition = false;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b == '"') {
+                int close = skipString(buf, i, end);
+                if (keyPosition) {
+                    keyPosition = false;
+                    int p = skipBlanks(buf, close, end);
+                    if (p < end && buf.get(p) == ':' && matches(buf, i, close, key)) {
+                        p = skipBlanks(buf, p + 1, end);
+                        fieldStart = p;
+                        fieldEnd = valueEnd(buf, p, end);
+                        return true;
+                    }
+                }
+                i = close - 1;
+            } else if (b == '{' || b == '[') {
+                if (depth++ == 0) {
+                    object = b == '{';
+                }
+                keyPosition = object && depth == 1;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            } else if (b == ',') {
+                keyPosition = object && depth == 1;
+            }
+        }
+        return false;
+    }
+
+    // Index just past the string opening at quote, honouring backslash escapes
+    private static int skipString(ByteBuffer buf, int quote, int end) {
+        for (int i = quote + 1; i < end; i++) {
+            byte b = buf.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static int skipBlanks(ByteBuffer buf, int i, int end) {
+        while (i < end && (isBlank(buf.get(i)) || buf.get(i) == '\r' || buf.get(i) == '\n')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean matches(ByteBuffer buf, int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int k = 0; k < key.length; k++) {
+            if (buf.get(start + k) != key[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // End of the value starting at p: a whole string, object or array, or a scalar up to
+    // the next separator
+    private static int valueEnd(ByteBuffer buf, int p, int end) {
+        if (p < end && buf.get(p) == '"') {
+            return skipString(buf, p, end);
+        }
+        int depth = 0;
+        for (int i = p; i < end; i++) {
+            byte b = buf.get(i);
+            if (b == '"') {
+                i = skipString(buf, i, end) - 1;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth-- == 0) {
+                    return i;
+                }
+                if (depth == 0) {
+                    return i + 1;
+                }
+            } else if (b == ',' && depth == 0) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // Parses [-]digits[.digits][e[-]digits], skipping quotes, blanks and grouping commas.
+    // Returns NaN when the field is not a number.
+    static double parseAmount(ByteBuffer buf, int start, int end) {
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        int exponent = 0;
+        boolean negative = false;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        boolean overflow = false;
+        boolean hasExponent = false;
+
+        int i = start;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (significant < 18) {
+                    if (mantissa != 0 || b != '0') {
+                        significant++;
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) {
+                        scale++;
+                    }
+                } else {
+                    overflow = true;
+                    if (!seenPoint) {
+                        scale--;
+                    }
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b == '-' && !seenDigit) {
+                negative = true;
+            } else if ((b == 'e' || b == 'E') && seenDigit) {
+                hasExponent = true;
+                i++;
+                break;
+            } else if (b != '"' && b != ',' && b != ' ' && b != '+' && b != '\t') {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        if (hasExponent) {
+            boolean negativeExponent = false;
+            boolean exponentDigit = false;
+            for (; i < end; i++) {
+                byte b = buf.get(i);
+                if (b == '-' && !exponentDigit) {
+                    negativeExponent = true;
+                } else if (b >= '0' && b <= '9') {
+                    exponentDigit = true;
+                    exponent = Math.min(exponent * 10 + (b - '0'), 9999);
+                } else if (b != '+' && b != '"' && b != ' ') {
+                    return Double.NaN;
+                }
+            }
+            if (!exponentDigit) {
+                return Double.NaN;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        int power = exponent - scale;
+        double value;
+        // Exact fast path: mantissa and power of ten are both representable
+        if (!overflow && mantissa < (1L << 53) && power >= -22 && power <= 22) {
+            value = power < 0 ? mantissa / POW10[-power] : mantissa * POW10[power];
+        } else {
+            value = slowParse(buf, start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    // Rare path for very long or extreme literals
+    private static double slowParse(ByteBuffer buf, int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = (char) buf.get(i);
+            if (c != '"' && c != ',' && c != ' ' && c != '\t' && !(c == '-' && sb.length() == 0)) {
+                sb.append(c);
+            }
+        }
+        try {
+            return Double.parseDouble(sb.toString());
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private int lookupCode(ByteBuffer buf, int start, int end) {
+        int key = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            int c = buf.get(i) & 0xFF;
+            if (c >= 'a' && c <= 'z') {
+                c -= 32;
+            }
+            if (c >= 'A' && c <= 'Z' && count < 3) {
+                key = key * 26 + (c - 'A');
+                count++;
+            } else if (c != '"' && c != ' ') {
+                return -1;
+            }
+        }
+        return count == 3 ? idsByCode[key] - 1 : -1;
+    }
+
+    static int codeKey(int a, int b, int c) {
+        if (a < 'A' || a > 'Z' || b < 'A' || b > 'Z' || c < 'A' || c > 'Z') {
+            return -1;
+        }
+        return (a - 'A') * 676 + (b - 'A') * 26 + (c - 'A');
+    }
+
+    private void writeFixed(double value) throws IOException {
+        double scaled = Math.abs(value) * decimalScale;
+        if (!(scaled < 9e15)) {
+            put(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            putByte((byte) '-');
+        }
+        writeDigits(units / decimalScale, 1);
+        if (decimals > 0) {
+            putByte((byte) '.');
+            writeDigits(units % decimalScale, decimals);
+        }
+    }
+
+    private void writeDigits(long value, int minDigits) throws IOException {
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n < minDigits) {
+            digits[n++] = '0';
+        }
+        while (n > 0) {
+            putByte(digits[--n]);
+        }
+    }
+
+    private void copy(ByteBuffer buf, int from, int to) throws IOException {
+        put(buf.array(), buf.arrayOffset() + from, to - from);
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        put(bytes, 0, bytes.length);
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        if (out.remaining() < length) {
+            flush();
+        }
+        out.put(bytes, offset, length);
+    }
+
+    private void putByte(byte b) throws IOException {
+        if (!out.hasRemaining()) {
+            flush();
+        }
+        out.put(b);
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            outChannel.write(out);
+        }
+        out.clear();
+    }
+
+    private static byte[] quotedKey(String field) {
+        return ("\"" + field + "\"").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package currencyconverter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a live rate feed. Serves the default table at {@code /rates} in the
+ * {@code CODE=rate} format with an ETag, optionally nudging every rate by a small random
+ * walk on each tick.
+ *
+ * Usage: java LocalRateServer [port] [tickMillis]
+ */
+public class LocalRateServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final String[] codes;
+    private final double[] rates;
+    private final Random random = new Random();
+    private volatile byte[] body;
+    private volatile String etag;
+    private long version;
+
+    public LocalRateServer(int port) throws IOException {
+        ConversionEngine engine = DefaultRates.engine();
+        codes = new String[engine.size()];
+        rates = new double[engine.size()];
+        for (int id = 0; id < codes.length; id++) {
+            codes[id] = engine.code(id);
+            rates[id] = engine.rate(id);
+        }
+        render();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/rates", this::handle);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void startTicking(long tickMillis) {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void tick() {
+        for (int i = 0; i < rates.length; i++) {
+            if (!codes[i].equals("USD")) {
+                rates[i] *= 1 + (random.nextGaussian() * 0.001);
+            }
+        }
+        render();
+    }
+
+    public synchronized void setRates(Map<String, Double> ratesByCode) {
+        for (int i = 0; i < codes.length; i++) {
+            Double rate = ratesByCode.get(codes[i]);
+            if (rate != null) {
+                rates[i] = rate;
+            }
+        }
+        render();
+    }
+
+    private void render() {
+        StringBuilder sb = new StringBuilder(codes.length * 20);
+        for (int i = 0; i < codes.length; i++) {
+            sb.append(codes[i]).append('=').append(rates[i]).append('\n');
+        }
+        body = sb.toString().getBytes(StandardCharsets.UTF_8);
+        etag = "\"" + (++version) + "\"";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] currentBody = body;
+        String currentEtag = etag;
+        exchange.getResponseHeaders().set("ETag", currentEtag);
+        if (currentEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, currentBody.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(currentBody);
+        }
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        server.stop(0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        long tickMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        LocalRateServer server = new LocalRateServer(port);
+        if (tickMillis > 0) {
+            server.startTicking(tickMillis);
+        }
+        System.out.println("Serving rates at http://127.0.0.1:" + server.port() + "/rates");
+    }
+}
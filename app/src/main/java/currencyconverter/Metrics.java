@@ -0,0 +1,316 @@
+package currencyconverter;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Process-wide conversion metrics: a latency histogram and allocation counter per
+ * instrumented operation, conversion counts per pair and a set of named gauges. Exposed
+ * as the {@code currencyconverter:type=Metrics} MXBean, as JFR events
+ * ({@link ConversionEvent} per operation, {@link MetricsEvent} every second) and on the
+ * Diagnostics tab. {@code -Dcurrency.metrics=false} turns collection off.
+ *
+ * Callers bracket an operation with {@link Timer#start()} and {@link Timer#stop(long, long)}:
+ * <pre>
+ * long started = Metrics.CONVERT.start();
+ * long allocated = Metrics.CONVERT.allocationMark(started);
+ * ...
+ * Metrics.CONVERT.stop(started, allocated);
+ * </pre>
+ * To keep overhead under 1% of the operations measured, a timer times one call in
+ * {@code sampleEvery} and reads the thread allocation counter on one timed call in
+ * {@value #ALLOCATION_SAMPLE_EVERY}; call counts are scaled up accordingly.
+ */
+public final class Metrics implements MetricsMXBean {
+    static final long NOT_TIMED = Long.MIN_VALUE;
+    static final int ALLOCATION_SAMPLE_EVERY = 4;
+
+    // Sample rates sized to each operation's cost: a timed call costs ~100 ns, plus ~150 ns
+    // when it also reads the allocation counter
+    private static final List<Timer> TIMERS = new ArrayList<>();
+    public static final Timer CONVERT = timer("convert", 32);
+    // Live previews, per keystroke and per rate tick, kept apart from recorded conversions
+    public static final Timer CONVERT_PREVIEW = timer("convertPreview", 32);
+    public static final Timer MULTI_CONVERT = timer("multiConvert", 256);
+    // The converter's rate lookup, through the pair cache or a historical snapshot
+    public static final Timer CONVERT_CURRENCY = timer("convertCurrency", 1024);
+    public static final Timer LEADERBOARD = timer("leaderboard", 4);
+    public static final Timer EDT_TASK = timer("edtTask", 8);
+
+    private static final PairCounter PAIRS = new PairCounter();
+    private static final Map<String, LongSupplier> GAUGES = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final Metrics INSTANCE = new Metrics();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private static volatile boolean enabled = !"false".equals(System.getProperty("currency.metrics"));
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    private static Timer timer(String name, int sampleEvery) {
+        Timer timer = new Timer(name, sampleEvery);
+        TIMERS.add(timer);
+        return timer;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /** One instrumented operation. */
+    public static final class Timer {
+        private final String name;
+        private final int sampleEvery;
+        private final int sampleMask;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder allocationSamples = new LongAdder();
+        // Racy on purpose: a lost increment only shifts which call gets sampled
+        private int ticks;
+        private int allocationTicks;
+
+        private Timer(String name, int sampleEvery) {
+            if (Integer.bitCount(sampleEvery) != 1) {
+                throw new IllegalArgumentException("sampleEvery must be a power of two");
+            }
+            this.name = name;
+            this.sampleEvery = sampleEvery;
+            this.sampleMask = sampleEvery - 1;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // Start time to hand to stop, or NOT_TIMED when disabled or not sampled
+        public long start() {
+            if ((ticks++ & sampleMask) != 0 || !enabled) {
+                return NOT_TIMED;
+            }
+            return System.nanoTime();
+        }
+
+        // Thread allocation counter to hand to stop, or -1 when this call is not measured
+        public long allocationMark(long started) {
+            if (started == NOT_TIMED || THREADS == null
+                    || (allocationTicks++ & (ALLOCATION_SAMPLE_EVERY - 1)) != 0) {
+                return -1;
+            }
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+
+        public void stop(long started, long allocatedBefore) {
+            if (started == NOT_TIMED) {
+                return;
+            }
+            long nanos = System.nanoTime() - started;
+            histogram.record(nanos);
+            if (allocatedBefore >= 0) {
+                allocatedBytes.add(THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore);
+                allocationSamples.increment();
+            }
+            ConversionEvent.emit(name, nanos);
+        }
+
+        // Estimated from the timed calls
+        public long calls() {
+            return histogram.count() * sampleEvery;
+        }
+
+        LatencyHistogram histogram() {
+            return histogram;
+        }
+
+        public long allocatedBytesPerCall() {
+            long samples = allocationSamples.sum();
+            return samples == 0 ? 0 : allocatedBytes.sum() / samples;
+        }
+
+        void reset() {
+            histogram.reset();
+            allocatedBytes.reset();
+            allocationSamples.reset();
+        }
+
+        TimerStats stats() {
+            return new TimerStats(name, calls(), histogram.mean() / 1000, histogram.percentile(50) / 1000.0,
+                    histogram.percentile(99) / 1000.0, histogram.percentile(99.9) / 1000.0,
+                    histogram.max() / 1000.0, allocatedBytesPerCall());
+        }
+    }
+
+    /** Summary of one timer in microseconds, as the MXBean reports it. */
+    public static final class TimerStats {
+        private final String name;
+        private final long calls;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+        private final long allocatedBytesPerCall;
+
+        TimerStats(String name, long calls, double meanMicros, double p50Micros, double p99Micros,
+                   double p999Micros, double maxMicros, long allocatedBytesPerCall) {
+            this.name = name;
+            this.calls = calls;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.p999Micros = p999Micros;
+            this.maxMicros = maxMicros;
+            this.allocatedBytesPerCall = allocatedBytesPerCall;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getAllocatedBytesPerCall() {
+            return allocatedBytesPerCall;
+        }
+    }
+
+    public static void countPair(String fromCode, String toCode) {
+        if (enabled) {
+            PAIRS.increment(fromCode, toCode);
+        }
+    }
+
+    // Replaces any gauge of the same name
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    static List<Timer> timers() {
+        return Collections.unmodifiableList(TIMERS);
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers the MXBean and the periodic JFR event, once per process. With
+     * {@code timeEdt}, also swaps in an event queue that times every EDT dispatch.
+     */
+    public static synchronized void install(boolean timeEdt) {
+        if (!registered) {
+            registered = true;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,
+                        new ObjectName("currencyconverter:type=Metrics"));
+            } catch (JMException ex) {
+                System.err.println("Metrics MXBean not registered: " + ex.getMessage());
+            }
+            FlightRecorder.addPeriodicEvent(MetricsEvent.class, MetricsEvent::emit);
+        }
+        if (timeEdt) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+        }
+    }
+
+    private static final class TimedEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            long started = EDT_TASK.start();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                EDT_TASK.stop(started, -1);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    @Override
+    public List<TimerStats> getTimers() {
+        List<TimerStats> stats = new ArrayList<>(TIMERS.size());
+        for (Timer timer : TIMERS) {
+            stats.add(timer.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<String, Long> getPairCounts() {
+        return PAIRS.top(50);
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        synchronized (GAUGES) {
+            for (Map.Entry<String, LongSupplier> entry : GAUGES.entrySet()) {
+                values.put(entry.getKey(), entry.getValue().getAsLong());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        for (Timer timer : TIMERS) {
+            timer.reset();
+        }
+        PAIRS.reset();
+    }
+
+    static Metrics instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,59 @@
+package currencyconverter;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Per-timer summary emitted every second while a recording has it enabled. */
+@Name("currencyconverter.Metrics")
+@Label("Conversion Metrics")
+@Category("Currency Converter")
+@Period("1 s")
+@StackTrace(false)
+final class MetricsEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Calls")
+    long calls;
+
+    @Label("p50")
+    @Timespan(Timespan.NANOSECONDS)
+    long p50;
+
+    @Label("p99")
+    @Timespan(Timespan.NANOSECONDS)
+    long p99;
+
+    @Label("p99.9")
+    @Timespan(Timespan.NANOSECONDS)
+    long p999;
+
+    @Label("Max")
+    @Timespan(Timespan.NANOSECONDS)
+    long max;
+
+    @Label("Allocated per Call")
+    @DataAmount
+    long allocatedPerCall;
+
+    static void emit() {
+        for (Metrics.Timer timer : Metrics.timers()) {
+            LatencyHistogram histogram = timer.histogram();
+            MetricsEvent event = new MetricsEvent();
+            event.operation = timer.name();
+            event.calls = timer.calls();
+            event.p50 = histogram.percentile(50);
+            event.p99 = histogram.percentile(99);
+            event.p999 = histogram.percentile(99.9);
+            event.max = histogram.max();
+            event.allocatedPerCall = timer.allocatedBytesPerCall();
+            event.commit();
+        }
+    }
+}
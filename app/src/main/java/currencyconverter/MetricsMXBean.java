@@ -0,0 +1,20 @@
+package currencyconverter;
+
+import java.util.List;
+import java.util.Map;
+
+/** Management view of {@link Metrics}, registered as {@code currencyconverter:type=Metrics}. */
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    List<Metrics.TimerStats> getTimers();
+
+    // Most frequent "FROM/TO" pairs
+    Map<String, Long> getPairCounts();
+
+    Map<String, Long> getGauges();
+
+    void reset();
+}
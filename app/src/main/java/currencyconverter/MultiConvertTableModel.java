@@ -0,0 +1,139 @@
+package currencyconverter;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Backing model for the Multi-Convert table. Holds one row per target currency as
+ * primitive arrays. Rows are rebuilt only when the source currency or the set of
+ * currencies changes; otherwise {@link #update} and {@link #updateRates} only fire events
+ * for the rows whose amount changed, so the selection survives rate ticks.
+ */
+public class MultiConvertTableModel extends AbstractTableModel {
+    static final int CURRENCY_COLUMN = 0;
+    static final int AMOUNT_COLUMN = 1;
+
+    private static final String[] COLUMNS = { "Currency", "Amount" };
+
+    private ConversionEngine engine;
+    private int fromId = -1;
+    private int[] rowIds = new int[0];
+    private double[] values = new double[0];
+
+    // results is indexed by currency ID; the source currency itself is not shown
+    public void update(ConversionEngine engine, int fromId, double[] results) {
+        if (this.engine == null || !engine.hasSameCurrencies(this.engine) || fromId != this.fromId) {
+            this.engine = engine;
+            this.fromId = fromId;
+            rowIds = new int[results.length - 1];
+            values = new double[rowIds.length];
+            for (int id = 0, row = 0; id < results.length; id++) {
+                if (id != fromId) {
+                    rowIds[row] = id;
+                    values[row++] = results[id];
+                }
+            }
+            fireTableDataChanged();
+            return;
+        }
+
+        this.engine = engine;
+        int firstChanged = -1;
+        for (int row = 0; row < rowIds.length; row++) {
+            double value = results[rowIds[row]];
+            if (Double.doubleToLongBits(value) != Double.doubleToLongBits(values[row])) {
+                values[row] = value;
+                if (firstChanged < 0) {
+                    firstChanged = row;
+                }
+            } else if (firstChanged >= 0) {
+                fireAmountsUpdated(firstChanged, row - 1);
+                firstChanged = -1;
+            }
+        }
+        if (firstChanged >= 0) {
+            fireAmountsUpdated(firstChanged, rowIds.length - 1);
+        }
+    }
+
+    /**
+     * Recomputes the rows of changedIds (every row if null, or if the source rate moved)
+     * for a snapshot with the same currencies. Returns false, changing nothing, when the
+     * currencies differ and the caller must run the full fan-out instead.
+     */
+    public boolean updateRates(ConversionEngine next, double amount, int[] changedIds) {
+        if (engine == null || !next.hasSameCurrencies(engine)) {
+            return false;
+        }
+        if (changedIds != null
+                && Double.doubleToLongBits(next.rate(fromId)) != Double.doubleToLongBits(engine.rate(fromId))) {
+            changedIds = null;
+        }
+        engine = next;
+        int count = changedIds == null ? next.size() : changedIds.length;
+        int firstChanged = -1;
+        int lastChanged = -1;
+        for (int i = 0; i < count; i++) {
+            int id = changedIds == null ? i : changedIds[i];
+            if (id == fromId) {
+                continue;
+            }
+            // Rows are the currency IDs in order with the source left out
+            int row = id < fromId ? id : id - 1;
+            double value = next.convert(amount, fromId, id);
+            if (Double.doubleToLongBits(value) != Double.doubleToLongBits(values[row])) {
+                values[row] = value;
+                // Adjacent changed rows go out as one event
+                if (firstChanged >= 0 && row != lastChanged + 1) {
+                    fireAmountsUpdated(firstChanged, lastChanged);
+                    firstChanged = -1;
+                }
+                if (firstChanged < 0) {
+                    firstChanged = row;
+                }
+                lastChanged = row;
+            }
+        }
+        if (firstChanged >= 0) {
+            fireAmountsUpdated(firstChanged, lastChanged);
+        }
+        return true;
+    }
+
+    private void fireAmountsUpdated(int firstRow, int lastRow) {
+        fireTableChanged(new TableModelEvent(this, firstRow, lastRow, AMOUNT_COLUMN));
+    }
+
+    public int currencyAt(int row) {
+        return rowIds[row];
+    }
+
+    public double amountAt(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowIds.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == AMOUNT_COLUMN ? Double.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return column == CURRENCY_COLUMN ? engine.label(rowIds[row]) : values[row];
+    }
+}
@@ -0,0 +1,105 @@
+package currencyconverter;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Fan-out of one or many source amounts to every currency in a {@link ConversionEngine}.
+ * Large requests are split across the common fork-join pool; small ones (such as the
+ * single amount behind CONVERT ALL) stay on the calling thread.
+ */
+public final class MultiConverter {
+    // Below this many output cells the fork-join overhead outweighs the work
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final ConversionEngine engine;
+
+    public MultiConverter(ConversionEngine engine) {
+        this.engine = engine;
+    }
+
+    public ConversionEngine engine() {
+        return engine;
+    }
+
+    // One amount to every currency, indexed by currency ID
+    public double[] convertAll(double amount, int fromId) {
+        double[] out = new double[engine.size()];
+        fill(amount, fromId, out, 0);
+        return out;
+    }
+
+    // amounts.length x size() table, one row per amount
+    public double[][] convertAll(double[] amounts, int fromId) {
+        int[] fromIds = new int[amounts.length];
+        Arrays.fill(fromIds, fromId);
+        return convertAll(amounts, fromIds);
+    }
+
+    public double[][] convertAll(double[] amounts, int[] fromIds) {
+        int n = engine.size();
+        double[][] table = new double[amounts.length][];
+        forEachRow(amounts.length, row -> {
+            double[] out = new double[n];
+            fill(amounts[row], fromIds[row], out, 0);
+            table[row] = out;
+        });
+        return table;
+    }
+
+    // Same table written row-major into a caller-supplied buffer of amounts.length * size()
+    public void convertAll(double[] amounts, int[] fromIds, double[] out) {
+        int n = engine.size();
+        long cells = (long) amounts.length * n;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Table of " + cells + " cells does not fit in an array");
+        }
+        if (fromIds.length < amounts.length || out.length < cells) {
+            throw new IllegalArgumentException("Column lengths do not match");
+        }
+        // Every offset is below cells, so row * n cannot overflow
+        forEachRow(amounts.length, row -> fill(amounts[row], fromIds[row], out, row * n));
+    }
+
+    // Value of a whole portfolio of positions in every currency
+    public double[] portfolioTotals(double[] amounts, int[] fromIds) {
+        if (fromIds.length < amounts.length) {
+            throw new IllegalArgumentException("Column lengths do not match");
+        }
+        // Normalise each position to USD once, then scale by each target rate
+        double usd = (long) amounts.length * engine.size() >= PARALLEL_THRESHOLD
+                ? IntStream.range(0, amounts.length).parallel()
+                        .mapToDouble(i -> amounts[i] / engine.rate(fromIds[i])).sum()
+                : sumUsd(amounts, fromIds);
+        double[] totals = new double[engine.size()];
+        for (int to = 0; to < totals.length; to++) {
+            totals[to] = usd * engine.rate(to);
+        }
+        return totals;
+    }
+
+    private double sumUsd(double[] amounts, int[] fromIds) {
+        double usd = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            usd += amounts[i] / engine.rate(fromIds[i]);
+        }
+        return usd;
+    }
+
+    private void fill(double amount, int fromId, double[] out, int offset) {
+        for (int to = 0, n = engine.size(); to < n; to++) {
+            out[offset + to] = engine.convert(amount, fromId, to);
+        }
+    }
+
+    private void forEachRow(int rows, IntConsumer body) {
+        if ((long) rows * engine.size() >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, rows).parallel().forEach(body);
+        } else {
+            for (int row = 0; row < rows; row++) {
+                body.accept(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package currencyconverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Conversion counts per currency pair without allocating: an open-addressing table of
+ * packed code pairs, claimed by CAS and probed linearly. Pairs arriving after the table
+ * is full are counted together under "other".
+ */
+final class PairCounter {
+    private static final int CAPACITY = 4096;
+    private static final int CODES = 26 * 26 * 26;
+
+    // key + 1 so that 0 marks a free slot
+    private final AtomicLongArray keys = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray counts = new AtomicLongArray(CAPACITY);
+    private final AtomicLong other = new AtomicLong();
+
+    void increment(String fromCode, String toCode) {
+        int from = key(fromCode);
+        int to = key(toCode);
+        if (from < 0 || to < 0) {
+            other.incrementAndGet();
+            return;
+        }
+        long key = (long) from * CODES + to + 1;
+        int slot = (int) (mix(key) & (CAPACITY - 1));
+        for (int probe = 0; probe < CAPACITY; probe++) {
+            long current = keys.get(slot);
+            if (current == key || (current == 0 && (keys.compareAndSet(slot, 0, key) || keys.get(slot) == key))) {
+                counts.incrementAndGet(slot);
+                return;
+            }
+            slot = (slot + 1) & (CAPACITY - 1);
+        }
+        other.incrementAndGet();
+    }
+
+    private static int key(String code) {
+        return code == null || code.length() < 3 ? -1
+                : LedgerConverter.codeKey(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+
+    // "FROM/TO" -> count, most frequent first, at most limit entries
+    Map<String, Long> top(int limit) {
+        long[] slotKeys = new long[CAPACITY];
+        long[] slotCounts = new long[CAPACITY];
+        int used = 0;
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            long key = keys.get(slot);
+            long count = counts.get(slot);
+            if (key != 0 && count > 0) {
+                slotKeys[used] = key;
+                slotCounts[used] = count;
+                used++;
+            }
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        // Selection by repeated max; limit is small
+        for (int n = 0; n < Math.min(limit, used); n++) {
+            int best = n;
+            for (int i = n + 1; i < used; i++) {
+                if (slotCounts[i] > slotCounts[best]) {
+                    best = i;
+                }
+            }
+            long key = slotKeys[best];
+            long count = slotCounts[best];
+            slotKeys[best] = slotKeys[n];
+            slotCounts[best] = slotCounts[n];
+            top.put(codeOf((int) ((key - 1) / CODES)) + "/" + codeOf((int) ((key - 1) % CODES)), count);
+        }
+        if (other.get() > 0) {
+            top.put("other", other.get());
+        }
+        return top;
+    }
+
+    private static String codeOf(int key) {
+        return new String(new char[] {
+                (char) ('A' + key / 676), (char) ('A' + key / 26 % 26), (char) ('A' + key % 26) });
+    }
+
+    void reset() {
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            counts.set(slot, 0);
+        }
+        other.set(0);
+    }
+}
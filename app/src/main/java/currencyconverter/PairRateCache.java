@@ -0,0 +1,155 @@
+package currencyconverter;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of triangulated pair rates (to / from via USD) for the hot display path.
+ * Entries are evicted least-recently-used once {@code maxSize} is reached and expire after
+ * {@code ttl}. When a new snapshot is published, an entry stays valid as long as neither
+ * of its currencies has changed rate since it was computed (per-currency versions); the
+ * whole cache is dropped only when the currency set changes. Pinned pairs (the user's
+ * favorites) are precomputed for every snapshot and never evicted.
+ */
+public class PairRateCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final Map<Long, Double> pinnedRates = new LinkedHashMap<>();
+    // "FROM/TO" ISO codes, resolved against each snapshot
+    private final Set<String> pinnedPairs = new LinkedHashSet<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private ConversionEngine engine;
+
+    private static final class Entry {
+        final double rate;
+        final long createdNanos;
+        // Snapshot version the rate was computed from
+        final long version;
+
+        Entry(double rate, long createdNanos, long version) {
+            this.rate = rate;
+            this.createdNanos = createdNanos;
+            this.version = version;
+        }
+    }
+
+    public PairRateCache(RateStore store, int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Long, Entry>(Math.min(maxSize, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > PairRateCache.this.maxSize;
+            }
+        };
+        this.engine = store.current();
+        store.addListener(this::invalidate);
+    }
+
+    public synchronized double rate(ConversionEngine snapshot, int fromId, int toId) {
+        if (snapshot != engine) {
+            invalidate(snapshot);
+        }
+        long key = key(fromId, toId);
+
+        Double pinned = pinnedRates.get(key);
+        if (pinned != null) {
+            hits.increment();
+            return pinned;
+        }
+
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdNanos < ttlNanos
+                && snapshot.rateVersion(fromId) <= entry.version && snapshot.rateVersion(toId) <= entry.version) {
+            hits.increment();
+            return entry.rate;
+        }
+        misses.increment();
+        double rate = triangulate(snapshot, fromId, toId);
+        entries.put(key, new Entry(rate, now, snapshot.version()));
+        return rate;
+    }
+
+    public synchronized void pin(String fromCode, String toCode) {
+        String pair = fromCode.toUpperCase() + "/" + toCode.toUpperCase();
+        if (pinnedPairs.add(pair)) {
+            pinResolved(pair);
+        }
+    }
+
+    public synchronized void unpin(String fromCode, String toCode) {
+        if (pinnedPairs.remove(fromCode.toUpperCase() + "/" + toCode.toUpperCase())) {
+            invalidate(engine);
+        }
+    }
+
+    public synchronized Set<String> pinnedPairs() {
+        return new LinkedHashSet<>(pinnedPairs);
+    }
+
+    // Runs on every publish, and when a caller presents a snapshot other than the cached one.
+    // Entries are only kept across versioned snapshots of the same currencies moving forward.
+    private synchronized void invalidate(ConversionEngine next) {
+        boolean keepEntries = engine != null && next.version() > engine.version() && engine.version() > 0
+                && next.hasSameCurrencies(engine);
+        engine = next;
+        if (!keepEntries) {
+            entries.clear();
+        }
+        pinnedRates.clear();
+        invalidations.increment();
+        for (String pair : pinnedPairs) {
+            pinResolved(pair);
+        }
+    }
+
+    private void pinResolved(String pair) {
+        int slash = pair.indexOf('/');
+        int fromId = engine.idOfCode(pair.substring(0, slash));
+        int toId = engine.idOfCode(pair.substring(slash + 1));
+        if (fromId >= 0 && toId >= 0) {
+            pinnedRates.put(key(fromId, toId), triangulate(engine, fromId, toId));
+        }
+    }
+
+    private static double triangulate(ConversionEngine snapshot, int fromId, int toId) {
+        return snapshot.rate(toId) / snapshot.rate(fromId);
+    }
+
+    private static long key(int fromId, int toId) {
+        return ((long) fromId << 32) | (toId & 0xFFFFFFFFL);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -0,0 +1,106 @@
+package currencyconverter;
+
+import java.util.Locale;
+
+/**
+ * Command-palette input for the converter, such as "250 usd to pkr", "1,000 euro in yen"
+ * or "gbp jpy": an optional amount, a from currency, an optional "to", "in", "into", "->"
+ * or "=", and a to currency. Currencies may be codes, names or parts of names and are
+ * resolved through a {@link CurrencyIndex} to its best match.
+ */
+final class QuickConvert {
+    // Null when the input has no amount
+    final String amountText;
+    final int fromId;
+    final int toId;
+
+    private QuickConvert(String amountText, int fromId, int toId) {
+        this.amountText = amountText;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    // Null unless the input names an amount (optionally) and two currencies the index knows
+    static QuickConvert parse(String input, CurrencyIndex index) {
+        int[] starts = new int[input.length() / 2 + 1];
+        int[] ends = new int[starts.length];
+        int tokens = 0;
+        for (int i = 0; i < input.length(); ) {
+            while (i < input.length() && Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i == input.length()) {
+                break;
+            }
+            starts[tokens] = i;
+            while (i < input.length() && !Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            ends[tokens++] = i;
+        }
+
+        int first = 0;
+        String amountText = null;
+        if (tokens > 0 && isAmount(input, starts[0], ends[0])) {
+            amountText = input.substring(starts[0], ends[0]).replace(",", "");
+            first = 1;
+        }
+        int separator = -1;
+        for (int t = first; t < tokens; t++) {
+            if (isSeparator(input.substring(starts[t], ends[t]))) {
+                separator = t;
+                break;
+            }
+        }
+
+        int fromLast;
+        int toFirst;
+        if (separator >= 0) {
+            fromLast = separator - 1;
+            toFirst = separator + 1;
+        } else if (tokens - first == 2) {
+            fromLast = first;
+            toFirst = first + 1;
+        } else {
+            return null;
+        }
+        if (fromLast < first || toFirst >= tokens) {
+            return null;
+        }
+        int fromId = index.best(input, starts[first], ends[fromLast]);
+        int toId = index.best(input, starts[toFirst], ends[tokens - 1]);
+        if (fromId < 0 || toId < 0) {
+            return null;
+        }
+        return new QuickConvert(amountText, fromId, toId);
+    }
+
+    private static boolean isAmount(String input, int start, int end) {
+        boolean digit = false;
+        boolean point = false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else if (c != ',' || i == start) {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    private static boolean isSeparator(String token) {
+        switch (token.toLowerCase(Locale.ROOT)) {
+            case "to":
+            case "in":
+            case "into":
+            case "->":
+            case "=":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
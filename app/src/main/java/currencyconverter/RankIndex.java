@@ -0,0 +1,183 @@
+package currencyconverter;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Order-statistic treap over currency IDs keyed by rate (ties broken by ID, which is the
+ * label order). Nodes live in parallel arrays indexed by ID, so moving a currency after a
+ * rate change allocates nothing; insert, remove, rank and select are O(log n) expected.
+ */
+final class RankIndex {
+    private static final int NIL = -1;
+
+    private final double[] keys;
+    private final int[] left;
+    private final int[] right;
+    private final int[] sizes;
+    private final int[] priorities;
+    private int root = NIL;
+    // Outputs of split(), kept in fields so it returns two roots without allocating
+    private int splitLess;
+    private int splitRest;
+
+    RankIndex(int capacity) {
+        keys = new double[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+        priorities = new int[capacity];
+        Random random = new Random(capacity);
+        for (int id = 0; id < capacity; id++) {
+            priorities[id] = random.nextInt();
+        }
+        Arrays.fill(left, NIL);
+        Arrays.fill(right, NIL);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    double keyOf(int id) {
+        return keys[id];
+    }
+
+    void insert(int id, double key) {
+        keys[id] = key;
+        left[id] = NIL;
+        right[id] = NIL;
+        sizes[id] = 1;
+        root = insert(root, id);
+    }
+
+    void remove(int id) {
+        root = remove(root, id);
+    }
+
+    // Moves id to its position for the new key
+    void update(int id, double key) {
+        remove(id);
+        insert(id, key);
+    }
+
+    // 0-based position of id in ascending key order, or -1 if it is not in the index
+    int rankOf(int id) {
+        int rank = 0;
+        int t = root;
+        while (t != NIL) {
+            if (t == id) {
+                return rank + size(left[t]);
+            }
+            if (less(id, t)) {
+                t = left[t];
+            } else {
+                rank += size(left[t]) + 1;
+                t = right[t];
+            }
+        }
+        return -1;
+    }
+
+    int idAt(int rank) {
+        int t = root;
+        while (t != NIL) {
+            int leftSize = size(left[t]);
+            if (rank < leftSize) {
+                t = left[t];
+            } else if (rank == leftSize) {
+                return t;
+            } else {
+                rank -= leftSize + 1;
+                t = right[t];
+            }
+        }
+        throw new IndexOutOfBoundsException("Rank " + rank);
+    }
+
+    private boolean less(int a, int b) {
+        int c = Double.compare(keys[a], keys[b]);
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    private int size(int t) {
+        return t == NIL ? 0 : sizes[t];
+    }
+
+    private void pull(int t) {
+        sizes[t] = size(left[t]) + size(right[t]) + 1;
+    }
+
+    private int insert(int t, int id) {
+        if (t == NIL) {
+            return id;
+        }
+        if (priorities[id] > priorities[t]) {
+            split(t, id);
+            left[id] = splitLess;
+            right[id] = splitRest;
+            pull(id);
+            return id;
+        }
+        if (less(id, t)) {
+            left[t] = insert(left[t], id);
+        } else {
+            right[t] = insert(right[t], id);
+        }
+        pull(t);
+        return t;
+    }
+
+    private int remove(int t, int id) {
+        if (t == NIL) {
+            return NIL;
+        }
+        if (t == id) {
+            return merge(left[t], right[t]);
+        }
+        if (less(id, t)) {
+            left[t] = remove(left[t], id);
+        } else {
+            right[t] = remove(right[t], id);
+        }
+        pull(t);
+        return t;
+    }
+
+    // Splits t into the nodes ordered before id (splitLess) and the rest (splitRest)
+    private void split(int t, int id) {
+        if (t == NIL) {
+            splitLess = NIL;
+            splitRest = NIL;
+            return;
+        }
+        if (less(t, id)) {
+            split(right[t], id);
+            right[t] = splitLess;
+            pull(t);
+            splitLess = t;
+        } else {
+            split(left[t], id);
+            left[t] = splitRest;
+            pull(t);
+            splitRest = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorities[a] > priorities[b]) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+}
@@ -0,0 +1,300 @@
+package currencyconverter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans published rate snapshots out to subscribers, such as the UI tabs, at most once per
+ * frame. Each subscriber has its own pending delta. Snapshots arriving between frames are
+ * conflated into it: the set of changed currencies grows and the snapshot is replaced by
+ * the newest. A flush runs at most once per frame interval, and only while something is
+ * pending. A subscriber still handling its previous delta is skipped until it finishes,
+ * so a slow subscriber gets fewer, larger deltas instead of a queue. Per-subscriber
+ * counters expose that backpressure.
+ */
+final class RateEventBus implements AutoCloseable {
+    /** Receives merged deltas on the subscriber's executor, one at a time. */
+    interface Handler {
+        void onRates(Delta delta);
+    }
+
+    /** What changed since the subscriber's previous delta. */
+    static final class Delta {
+        private final ConversionEngine engine;
+        private final int[] changedIds;
+        private final boolean catalogChanged;
+        private final int updates;
+
+        Delta(ConversionEngine engine, int[] changedIds, boolean catalogChanged, int updates) {
+            this.engine = engine;
+            this.changedIds = changedIds;
+            this.catalogChanged = catalogChanged;
+            this.updates = updates;
+        }
+
+        // Newest snapshot merged in
+        ConversionEngine engine() {
+            return engine;
+        }
+
+        // Currencies whose rate changed, ascending; meaningless when the catalog changed
+        int[] changedIds() {
+            return changedIds;
+        }
+
+        boolean changed(int id) {
+            return catalogChanged || Arrays.binarySearch(changedIds, id) >= 0;
+        }
+
+        // Currencies were added or removed, so IDs from before no longer apply
+        boolean catalogChanged() {
+            return catalogChanged;
+        }
+
+        // Snapshots conflated into this delta
+        int updates() {
+            return updates;
+        }
+    }
+
+    private final long frameNanos;
+    private final ScheduledExecutorService ticker;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private volatile long lastFlushNanos;
+    // Last snapshot seen by publish, which is called in version order
+    private ConversionEngine last;
+
+    RateEventBus(ConversionEngine initial, long frameMillis) {
+        this.last = initial;
+        this.frameNanos = TimeUnit.MILLISECONDS.toNanos(frameMillis);
+        this.lastFlushNanos = System.nanoTime() - frameNanos;
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-event-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    Subscription subscribe(String name, Executor executor, Handler handler) {
+        Subscription subscription = new Subscription(name, executor, handler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    // Null if nothing subscribed under that name
+    Subscription subscription(String name) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.name.equals(name)) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    // Call in version order, e.g. as a RateStore listener; only diffs and marks pending work
+    void publish(ConversionEngine next) {
+        ConversionEngine previous;
+        synchronized (this) {
+            previous = last;
+            last = next;
+        }
+        published.increment();
+        boolean catalogChanged = !next.hasSameCurrencies(previous);
+        BitSet changed = new BitSet(next.size());
+        if (!catalogChanged) {
+            for (int id = 0; id < next.size(); id++) {
+                if (Double.doubleToLongBits(next.rate(id)) != Double.doubleToLongBits(previous.rate(id))) {
+                    changed.set(id);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.merge(next, changed, catalogChanged);
+        }
+        scheduleFlush();
+    }
+
+    // No sooner than a frame after the previous flush
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            long delay = Math.max(0, lastFlushNanos + frameNanos - System.nanoTime());
+            ticker.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        lastFlushNanos = System.nanoTime();
+        flushes.increment();
+        boolean waiting = false;
+        for (Subscription subscription : subscriptions) {
+            waiting |= !subscription.deliver();
+        }
+        // Busy subscribers get their merged delta on a later frame
+        if (waiting) {
+            scheduleFlush();
+        }
+    }
+
+    long published() {
+        return published.sum();
+    }
+
+    long flushes() {
+        return flushes.sum();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /** One subscriber's pending delta and its backpressure counters. */
+    final class Subscription {
+        private final String name;
+        private final Executor executor;
+        private final Handler handler;
+        // Guarded by this
+        private final BitSet pending = new BitSet();
+        private ConversionEngine pendingEngine;
+        private boolean pendingCatalogChange;
+        private int pendingUpdates;
+        private long pendingSinceNanos;
+        private boolean inFlight;
+
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder conflated = new LongAdder();
+        private final LongAdder busyFrames = new LongAdder();
+        private volatile long maxChanged;
+        private volatile long lastLagNanos;
+        private volatile long maxLagNanos;
+
+        private Subscription(String name, Executor executor, Handler handler) {
+            this.name = name;
+            this.executor = executor;
+            this.handler = handler;
+        }
+
+        String name() {
+            return name;
+        }
+
+        private synchronized void merge(ConversionEngine next, BitSet changed, boolean catalogChange) {
+            updates.increment();
+            if (pendingEngine == null) {
+                pendingSinceNanos = System.nanoTime();
+            } else {
+                conflated.increment();
+            }
+            pendingEngine = next;
+            pendingUpdates++;
+            if (catalogChange) {
+                pendingCatalogChange = true;
+                pending.clear();
+            } else if (!pendingCatalogChange) {
+                pending.or(changed);
+            }
+        }
+
+        // False if a delta is pending but the previous one is still being handled
+        private boolean deliver() {
+            Delta delta;
+            long since;
+            synchronized (this) {
+                if (pendingEngine == null) {
+                    return true;
+                }
+                if (inFlight) {
+                    busyFrames.increment();
+                    return false;
+                }
+                int[] ids = pendingCatalogChange ? new int[0] : pending.stream().toArray();
+                delta = new Delta(pendingEngine, ids, pendingCatalogChange, pendingUpdates);
+                since = pendingSinceNanos;
+                pending.clear();
+                pendingEngine = null;
+                pendingCatalogChange = false;
+                pendingUpdates = 0;
+                inFlight = true;
+            }
+            if (delta.changedIds.length > maxChanged) {
+                maxChanged = delta.changedIds.length;
+            }
+            executor.execute(() -> {
+                long lag = System.nanoTime() - since;
+                lastLagNanos = lag;
+                if (lag > maxLagNanos) {
+                    maxLagNanos = lag;
+                }
+                try {
+                    handler.onRates(delta);
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace();
+                } finally {
+                    delivered.increment();
+                    boolean more;
+                    synchronized (this) {
+                        inFlight = false;
+                        more = pendingEngine != null;
+                    }
+                    if (more) {
+                        scheduleFlush();
+                    }
+                }
+            });
+            return true;
+        }
+
+        // Snapshots merged into this subscriber's deltas
+        long updates() {
+            return updates.sum();
+        }
+
+        long delivered() {
+            return delivered.sum();
+        }
+
+        // Snapshots folded into an already pending delta
+        long conflated() {
+            return conflated.sum();
+        }
+
+        // Flushes that found the previous delta still being handled
+        long busyFrames() {
+            return busyFrames.sum();
+        }
+
+        // Most currencies changed in one delta
+        long maxChanged() {
+            return maxChanged;
+        }
+
+        // First pending snapshot to handler start
+        long lastLagNanos() {
+            return lastLagNanos;
+        }
+
+        long maxLagNanos() {
+            return maxLagNanos;
+        }
+    }
+}
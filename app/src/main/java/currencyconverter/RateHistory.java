@@ -0,0 +1,440 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time series of every currency's rate, for pricing as of an earlier moment. Ticks are
+ * recorded only when a rate changes, Gorilla-compressed per currency, and kept in
+ * segment files of at most one UTC day ({@link RateSegment}) that are memory-mapped once
+ * sealed. Every segment opens with the carried-forward rate of each currency, so an
+ * as-of lookup never has to look further back than the segment holding the timestamp.
+ *
+ * Sealed segments are read without locking; the segment still being written lives in
+ * memory and is sealed on day rollover, when it grows past a size cap, and on close. It is
+ * also checkpointed to a side file every {@code -Dcurrency.rates.history.checkpoint.ms}
+ * (a minute by default), which the next writer promotes to a segment if the process died
+ * before sealing, so a crash loses at most that interval of ticks.
+ *
+ * One process writes a directory at a time, holding a lock on its lock file. Another
+ * process opening the directory meanwhile gets a read-only history that picks up newly
+ * sealed segments on the same interval.
+ */
+public class RateHistory implements AutoCloseable {
+    /** Receives ticks from a range scan. */
+    public interface TickConsumer {
+        void accept(long timestampMillis, double rate);
+    }
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long MAX_ACTIVE_BYTES = 64L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "rates-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_SUFFIX = ".ckpt";
+    private static final String LOCK_FILE = "writer.lock";
+
+    private final Path directory;
+    // Held while this history is the directory's writer; null when read-only
+    private final FileChannel lockChannel;
+    private final ScheduledExecutorService ticker;
+    // Copy-on-write, keyed by segment start
+    private volatile NavigableMap<Long, RateSegment> segments;
+
+    // The open segment and the last recorded rate per code, guarded by this
+    private final Map<String, RateSeriesWriter> active = new LinkedHashMap<>();
+    private final Map<String, Double> lastRates = new HashMap<>();
+    private long activeStart = Long.MIN_VALUE;
+    private long activeEnd = Long.MIN_VALUE;
+    private boolean closed;
+    // Ticks recorded since the last checkpoint
+    private boolean dirty;
+    private long failures;
+
+    private RateHistory(Path directory, FileChannel lockChannel, NavigableMap<Long, RateSegment> segments) {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.segments = segments;
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Long.getLong("currency.rates.history.checkpoint.ms", 60_000);
+        ticker.scheduleWithFixedDelay(lockChannel != null ? this::checkpointQuietly : this::refreshQuietly,
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Read-only, without touching the directory, if another process is writing it
+    public static RateHistory open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            // Already locked by another history in this JVM
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+        }
+
+        try {
+            if (lockChannel != null) {
+                recoverCheckpoints(directory);
+            }
+            NavigableMap<Long, RateSegment> segments = new TreeMap<>();
+            loadSegments(directory, segments);
+            return new RateHistory(directory, lockChannel, segments);
+        } catch (IOException | RuntimeException ex) {
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+            throw ex;
+        }
+    }
+
+    // Drops files of seals that never completed and promotes the checkpoint of a segment
+    // whose writer died before sealing it
+    private static void recoverCheckpoints(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            stream.forEach(files::add);
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+            } else if (name.endsWith(CHECKPOINT_SUFFIX)) {
+                Path segment = file.resolveSibling(
+                        name.substring(0, name.length() - CHECKPOINT_SUFFIX.length()) + SEGMENT_SUFFIX);
+                if (Files.exists(segment)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    Files.move(file, segment, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+    }
+
+    // Adds the sealed segments not yet in the map
+    private static void loadSegments(Path directory, NavigableMap<Long, RateSegment> segments) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String start = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    if (segments.containsKey(Long.parseLong(start))) {
+                        continue;
+                    }
+                } catch (NumberFormatException ex) {
+                    // Not named by this class; opened and checked like any other
+                }
+                RateSegment segment = RateSegment.open(file);
+                segments.put(segment.start(), segment);
+            }
+        }
+    }
+
+    // False when another process holds the directory: nothing is recorded
+    public boolean isWriter() {
+        return lockChannel != null;
+    }
+
+    // -Dcurrency.rates.history.dir, default ~/.currency-converter/rates
+    public static Path defaultDirectory() {
+        String fallback = Paths.get(System.getProperty("user.home"), ".currency-converter", "rates").toString();
+        return Paths.get(System.getProperty("currency.rates.history.dir", fallback));
+    }
+
+    // Records the store's current snapshot now and every snapshot published after it;
+    // does nothing on a read-only history
+    public void recordFrom(RateStore store) {
+        if (!isWriter()) {
+            return;
+        }
+        recordQuietly(store.current());
+        store.addListener(this::recordQuietly);
+    }
+
+    private void recordQuietly(ConversionEngine snapshot) {
+        try {
+            record(System.currentTimeMillis(), snapshot);
+        } catch (IOException ex) {
+            // Keep converting on live rates; only the first failure of the session is logged
+            synchronized (this) {
+                if (failures++ == 0) {
+                    System.err.println("Rate history not recorded: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Records the rates of a snapshot at the given time. Only rates that differ from the
+     * last recorded value become ticks, except at the start of a segment, which gets all.
+     * Timestamps are clamped so the series never runs backwards.
+     */
+    public synchronized void record(long timestampMillis, ConversionEngine snapshot) throws IOException {
+        if (closed) {
+            throw new IOException("Rate history is closed");
+        }
+        if (!isWriter()) {
+            throw new IOException("Rate history in " + directory + " is being written by another process");
+        }
+        long timestamp = Math.max(timestampMillis, latestTimestamp());
+        if (!active.isEmpty() && (Math.floorDiv(timestamp, DAY_MILLIS) != Math.floorDiv(activeStart, DAY_MILLIS)
+                || activeBytes() >= MAX_ACTIVE_BYTES)) {
+            seal();
+        }
+        if (active.isEmpty()) {
+            Map.Entry<Long, RateSegment> last = segments.lastEntry();
+            if (last != null && timestamp <= last.getKey()) {
+                timestamp = last.getKey() + 1;
+            }
+            activeStart = timestamp;
+        }
+
+        boolean carryAll = activeEnd < activeStart;
+        for (int id = 0; id < snapshot.size(); id++) {
+            String code = snapshot.code(id);
+            double rate = snapshot.rate(id);
+            Double previous = lastRates.get(code);
+            if (!carryAll && previous != null && Double.compare(previous, rate) == 0) {
+                continue;
+            }
+            RateSeriesWriter series = active.get(code);
+            if (series == null) {
+                series = new RateSeriesWriter(snapshot.label(id));
+                active.put(code, series);
+            }
+            series.append(timestamp, rate);
+            lastRates.put(code, rate);
+        }
+        activeEnd = timestamp;
+        dirty = true;
+    }
+
+    private long latestTimestamp() {
+        if (activeEnd != Long.MIN_VALUE) {
+            return activeEnd;
+        }
+        Map.Entry<Long, RateSegment> last = segments.lastEntry();
+        return last == null ? Long.MIN_VALUE : last.getValue().end();
+    }
+
+    private long activeBytes() {
+        long bytes = 0;
+        for (RateSeriesWriter series : active.values()) {
+            bytes += series.encodedBytes();
+        }
+        return bytes;
+    }
+
+    // Writes the open segment to disk and starts a new one
+    public synchronized void flush() throws IOException {
+        if (!active.isEmpty()) {
+            seal();
+        }
+    }
+
+    private void seal() throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + activeStart + SEGMENT_SUFFIX);
+        RateSegment segment = RateSegment.write(file, activeStart, activeEnd, new ArrayList<>(active.values()));
+        NavigableMap<Long, RateSegment> next = new TreeMap<>(segments);
+        next.put(segment.start(), segment);
+        segments = next;
+        Files.deleteIfExists(checkpointFile());
+        active.clear();
+        activeEnd = Long.MIN_VALUE;
+        dirty = false;
+    }
+
+    private Path checkpointFile() {
+        return directory.resolve(SEGMENT_PREFIX + activeStart + CHECKPOINT_SUFFIX);
+    }
+
+    // Writes the open segment as it stands to its checkpoint file, which is never mapped
+    // here, so the next checkpoint or the seal can replace or delete it
+    synchronized void checkpoint() throws IOException {
+        if (closed || !dirty || active.isEmpty()) {
+            return;
+        }
+        RateSegment.writeFile(checkpointFile(), activeStart, activeEnd, new ArrayList<>(active.values()));
+        dirty = false;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // Read-only: picks up the segments the writer has sealed since
+    private void refreshQuietly() {
+        try {
+            NavigableMap<Long, RateSegment> next = new TreeMap<>(segments);
+            loadSegments(directory, next);
+            if (next.size() != segments.size()) {
+                segments = next;
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // Rate of code (units per 1 USD) in force at the given time, NaN if none was recorded yet
+    public double rateAt(String code, long timestampMillis) {
+        TickBlock.Reader reader = new TickBlock.Reader();
+        synchronized (this) {
+            if (!active.isEmpty() && timestampMillis >= activeStart) {
+                TickSeries series = active.get(code);
+                double rate = series == null ? Double.NaN : series.rateAt(timestampMillis, reader);
+                if (!Double.isNaN(rate)) {
+                    return rate;
+                }
+            }
+        }
+        NavigableMap<Long, RateSegment> sealed = segments;
+        for (Map.Entry<Long, RateSegment> entry = sealed.floorEntry(timestampMillis); entry != null;
+                entry = sealed.lowerEntry(entry.getKey())) {
+            TickSeries series = entry.getValue().series(code);
+            double rate = series == null ? Double.NaN : series.rateAt(timestampMillis, reader);
+            if (!Double.isNaN(rate)) {
+                return rate;
+            }
+        }
+        return Double.NaN;
+    }
+
+    public double convert(double amount, String fromCode, String toCode, long timestampMillis) {
+        return amount * rateAt(toCode, timestampMillis) / rateAt(fromCode, timestampMillis);
+    }
+
+    // Every currency known at that time with its rate then, or null if nothing was recorded yet
+    public ConversionEngine snapshotAt(long timestampMillis) {
+        Map<String, String> labelsByCode = new LinkedHashMap<>();
+        synchronized (this) {
+            if (!active.isEmpty() && timestampMillis >= activeStart) {
+                for (RateSeriesWriter series : active.values()) {
+                    labelsByCode.put(ConversionEngine.codeOf(series.label()), series.label());
+                }
+            }
+        }
+        Map.Entry<Long, RateSegment> segment = segments.floorEntry(timestampMillis);
+        if (segment != null) {
+            segment.getValue().collectLabels(labelsByCode);
+        }
+
+        Map<String, Double> rates = new HashMap<>(labelsByCode.size() * 2);
+        for (Map.Entry<String, String> entry : labelsByCode.entrySet()) {
+            double rate = rateAt(entry.getKey(), timestampMillis);
+            if (!Double.isNaN(rate)) {
+                rates.put(entry.getValue(), rate);
+            }
+        }
+        return rates.isEmpty() ? null : new ConversionEngine(rates);
+    }
+
+    /**
+     * Streams the rate of code over [fromMillis, toMillis]: first the rate in force at
+     * fromMillis (reported at fromMillis), then every change up to toMillis.
+     */
+    public void scan(String code, long fromMillis, long toMillis, TickConsumer consumer) {
+        double last = rateAt(code, fromMillis);
+        if (!Double.isNaN(last)) {
+            consumer.accept(fromMillis, last);
+        }
+        TickBlock.Reader reader = new TickBlock.Reader();
+        NavigableMap<Long, RateSegment> sealed = segments;
+        Long first = sealed.floorKey(fromMillis);
+        for (RateSegment segment : sealed.subMap(first == null ? Long.MIN_VALUE : first, true,
+                toMillis, true).values()) {
+            TickSeries series = segment.series(code);
+            if (series != null && segment.end() >= fromMillis) {
+                last = series.scan(fromMillis, toMillis, last, consumer, reader);
+            }
+        }
+        synchronized (this) {
+            // The open segment always starts after the sealed ones, so this continues in order
+            TickSeries series = active.get(code);
+            if (series != null && activeStart <= toMillis) {
+                series.scan(fromMillis, toMillis, last, consumer, reader);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            ticker.shutdownNow();
+            try {
+                flush();
+            } finally {
+                closed = true;
+                if (lockChannel != null) {
+                    lockChannel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses an as-of time: epoch milliseconds, an ISO instant ("2026-10-17T09:30:00Z"),
+     * a local date-time ("2026-10-17T09:30" or "2026-10-17 09:30") or a date, which means
+     * the end of that day. Local forms use the system time zone.
+     */
+    public static long parseTimestamp(String text) {
+        String value = text.trim();
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            if (value.endsWith("Z") || value.endsWith("z")) {
+                return Instant.parse(value.toUpperCase()).toEpochMilli();
+            }
+            if (value.length() == 10) {
+                return LocalDate.parse(value).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+            }
+            return LocalDateTime.parse(value.replace(' ', 'T')).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Unrecognised time: " + text);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Source of live rates. Rates are keyed by ISO code and expressed as units per 1 USD,
+ * the same convention as {@code initializeExchangeRates}.
+ *
+ * The text format shared by the built-in providers is one {@code CODE=rate} pair per
+ * line; blank lines and lines starting with {@code #} are ignored.
+ */
+public interface RateProvider {
+
+    // Returns null when the source has not changed since the previous call
+    Map<String, Double> fetchRates() throws IOException;
+
+    // "file:/path", "dir:/path" or an http(s) URL
+    static RateProvider fromSpec(String spec) {
+        if (spec.startsWith("file:")) {
+            return new FileRateProvider(Paths.get(spec.substring("file:".length())));
+        }
+        if (spec.startsWith("dir:")) {
+            return new DirectoryRateProvider(Paths.get(spec.substring("dir:".length())));
+        }
+        if (spec.startsWith("http://") || spec.startsWith("https://")) {
+            return new HttpRateProvider(URI.create(spec));
+        }
+        throw new IllegalArgumentException("Unknown rate source: " + spec);
+    }
+
+    static Map<String, Double> parse(BufferedReader in, String source) throws IOException {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (eq <= 0) {
+                throw new IOException(source + ":" + lineNumber + ": expected CODE=rate");
+            }
+            String code = line.substring(0, eq).trim().toUpperCase();
+            double rate;
+            try {
+                rate = Double.parseDouble(line.substring(eq + 1).trim());
+            } catch (NumberFormatException ex) {
+                throw new IOException(source + ":" + lineNumber + ": invalid rate for " + code);
+            }
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new IOException(source + ":" + lineNumber + ": rate for " + code + " must be positive");
+            }
+            rates.put(code, rate);
+        }
+        return rates;
+    }
+}
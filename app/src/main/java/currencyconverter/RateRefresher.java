@@ -0,0 +1,83 @@
+package currencyconverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a {@link RateProvider} on a background thread and publishes a fresh snapshot to a
+ * {@link RateStore} whenever the rates actually change. Codes the provider does not send
+ * keep their previous rate; new codes are added with the code as their label.
+ */
+public class RateRefresher implements AutoCloseable {
+    private final RateProvider provider;
+    private final RateStore store;
+    private final ScheduledExecutorService scheduler;
+    private volatile long lastRefreshMillis;
+    private volatile long failures;
+
+    public RateRefresher(RateProvider provider, RateStore store) {
+        this.provider = provider;
+        this.store = store;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Fixed delay, so a slow fetch never queues up overlapping refreshes
+    public void start(long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            // Keep serving the last good snapshot; only the first failure of a streak is logged
+            if (failures++ == 0) {
+                System.err.println("Rate refresh failed: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Returns true when a new snapshot was published
+    public boolean refresh() throws Exception {
+        Map<String, Double> fetched = provider.fetchRates();
+        lastRefreshMillis = System.currentTimeMillis();
+        failures = 0;
+        if (fetched == null || fetched.isEmpty()) {
+            return false;
+        }
+
+        while (true) {
+            ConversionEngine previous = store.current();
+            Map<String, Double> merged = new LinkedHashMap<>(previous.toRateMap());
+            boolean changed = false;
+            for (Map.Entry<String, Double> entry : fetched.entrySet()) {
+                int id = previous.idOfCode(entry.getKey());
+                String label = id < 0 ? entry.getKey() : previous.label(id);
+                Double old = merged.put(label, entry.getValue());
+                changed |= old == null || old.doubleValue() != entry.getValue();
+            }
+            if (!changed) {
+                return false;
+            }
+            if (store.compareAndPublish(previous, new ConversionEngine(merged))) {
+                return true;
+            }
+        }
+    }
+
+    public long lastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
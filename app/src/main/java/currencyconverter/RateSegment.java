@@ -0,0 +1,221 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sealed, read-only segment of rate history, memory-mapped. Each currency is its own
+ * column of {@link TickBlock}s with a block index in front, so a lookup touches one index
+ * page and one block.
+ *
+ * Layout: a 32-byte header (magic, version, start, end, series count), a 48-byte directory
+ * entry per series, the UTF-8 label table, every series' block index (16 bytes per block:
+ * start, offset, tick count), then the encoded blocks.
+ */
+final class RateSegment {
+    private static final int MAGIC = 0x52545331; // "RTS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 48;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private final Path path;
+    private final long start;
+    private final long end;
+    private final Series[] series;
+    private final Map<String, Series> seriesByCode;
+
+    private RateSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a rate segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported rate segment version in " + path);
+        }
+        start = buffer.getLong(8);
+        end = buffer.getLong(16);
+        int count = buffer.getInt(24);
+        series = new Series[count];
+        seriesByCode = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            byte[] label = new byte[buffer.getInt(entry + 4)];
+            buffer.get(buffer.getInt(entry), label);
+            series[i] = new Series(buffer, new String(label, StandardCharsets.UTF_8),
+                    buffer.getInt(entry + 8), buffer.getInt(entry + 12),
+                    buffer.getLong(entry + 16), buffer.getDouble(entry + 24));
+            seriesByCode.put(ConversionEngine.codeOf(series[i].label), series[i]);
+        }
+    }
+
+    static RateSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new RateSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Writes the finished series to a temp file and moves it into place, then maps it
+    static RateSegment write(Path path, long start, long end, List<RateSeriesWriter> writers)
+            throws IOException {
+        for (RateSeriesWriter writer : writers) {
+            writer.finish();
+        }
+        writeFile(path, start, end, writers);
+        return open(path);
+    }
+
+    /**
+     * Writes the series as they stand, open blocks included, to a temp file and moves it
+     * into place without mapping it. The writers keep taking ticks, so this can checkpoint
+     * a segment that is still being written.
+     */
+    static void writeFile(Path path, long start, long end, List<RateSeriesWriter> writers)
+            throws IOException {
+        int count = writers.size();
+        byte[][] labels = new byte[count][];
+        int labelBytes = 0;
+        int indexBytes = 0;
+        for (int i = 0; i < count; i++) {
+            labels[i] = writers.get(i).label().getBytes(StandardCharsets.UTF_8);
+            labelBytes += labels[i].length;
+            indexBytes += writers.get(i).blockCount() * INDEX_ENTRY_SIZE;
+        }
+
+        int labelOffset = HEADER_SIZE + count * ENTRY_SIZE;
+        int indexOffset = labelOffset + labelBytes;
+        long dataOffset = indexOffset + indexBytes;
+        ByteBuffer meta = ByteBuffer.allocate(indexOffset + indexBytes);
+        meta.putInt(MAGIC).putInt(VERSION).putLong(start).putLong(end).putInt(count).putInt(0);
+        for (int i = 0; i < count; i++) {
+            RateSeriesWriter writer = writers.get(i);
+            meta.position(HEADER_SIZE + i * ENTRY_SIZE);
+            meta.putInt(labelOffset).putInt(labels[i].length)
+                    .putInt(indexOffset).putInt(writer.blockCount())
+                    .putLong(writer.lastTimestamp()).putDouble(writer.lastRate());
+            meta.position(labelOffset);
+            meta.put(labels[i]);
+            labelOffset += labels[i].length;
+
+            meta.position(indexOffset);
+            for (int block = 0; block < writer.blockCount(); block++) {
+                meta.putLong(writer.blockStart(block)).putInt(Math.toIntExact(dataOffset))
+                        .putInt(writer.blockTicks(block));
+                dataOffset += writer.blockBuffer(block).capacity();
+            }
+            indexOffset = meta.position();
+        }
+        meta.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, meta);
+            for (RateSeriesWriter writer : writers) {
+                for (int block = 0; block < writer.blockCount(); block++) {
+                    writeFully(channel, writer.blockBuffer(block).duplicate().clear());
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long start() {
+        return start;
+    }
+
+    long end() {
+        return end;
+    }
+
+    TickSeries series(String code) {
+        return seriesByCode.get(code);
+    }
+
+    // Label -> code pairs of every series, for building a snapshot as of some time
+    void collectLabels(Map<String, String> labelsByCode) {
+        for (Series s : series) {
+            labelsByCode.putIfAbsent(ConversionEngine.codeOf(s.label), s.label);
+        }
+    }
+
+    private static final class Series extends TickSeries {
+        private final ByteBuffer buffer;
+        private final String label;
+        private final int indexOffset;
+        private final int blockCount;
+        private final long lastTimestamp;
+        private final double lastRate;
+
+        Series(ByteBuffer buffer, String label, int indexOffset, int blockCount,
+               long lastTimestamp, double lastRate) {
+            this.buffer = buffer;
+            this.label = label;
+            this.indexOffset = indexOffset;
+            this.blockCount = blockCount;
+            this.lastTimestamp = lastTimestamp;
+            this.lastRate = lastRate;
+        }
+
+        @Override
+        String label() {
+            return label;
+        }
+
+        @Override
+        int blockCount() {
+            return blockCount;
+        }
+
+        @Override
+        long blockStart(int block) {
+            return buffer.getLong(indexOffset + block * INDEX_ENTRY_SIZE);
+        }
+
+        @Override
+        int blockTicks(int block) {
+            return buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE + 12);
+        }
+
+        @Override
+        ByteBuffer blockBuffer(int block) {
+            return buffer;
+        }
+
+        @Override
+        int blockOffset(int block) {
+            return buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE + 8);
+        }
+
+        @Override
+        long lastTimestamp() {
+            return lastTimestamp;
+        }
+
+        @Override
+        double lastRate() {
+            return lastRate;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package currencyconverter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * In-memory series of the segment that is still being written. Full blocks are kept as
+ * encoded byte arrays; the open block is encoded as ticks arrive. Callers synchronize.
+ */
+final class RateSeriesWriter extends TickSeries {
+    private final String label;
+    private ByteBuffer[] blocks = new ByteBuffer[8];
+    private long[] blockStarts = new long[8];
+    private int[] blockTicks = new int[8];
+    private int sealedBlocks;
+    private TickBlock.Writer open = new TickBlock.Writer();
+    private ByteBuffer openSnapshot;
+    private long lastTimestamp;
+    private double lastRate;
+    private long encodedBytes;
+
+    RateSeriesWriter(String label) {
+        this.label = label;
+    }
+
+    void append(long timestamp, double rate) {
+        if (open.isFull()) {
+            sealBlock();
+        }
+        open.append(timestamp, rate);
+        openSnapshot = null;
+        lastTimestamp = timestamp;
+        lastRate = rate;
+    }
+
+    private void sealBlock() {
+        if (sealedBlocks == blocks.length) {
+            blocks = Arrays.copyOf(blocks, sealedBlocks * 2);
+            blockStarts = Arrays.copyOf(blockStarts, sealedBlocks * 2);
+            blockTicks = Arrays.copyOf(blockTicks, sealedBlocks * 2);
+        }
+        byte[] encoded = open.finish();
+        blocks[sealedBlocks] = ByteBuffer.wrap(encoded);
+        blockStarts[sealedBlocks] = open.firstTimestamp();
+        blockTicks[sealedBlocks] = open.count();
+        sealedBlocks++;
+        encodedBytes += encoded.length;
+        open = new TickBlock.Writer();
+    }
+
+    // Encoded size so far, used to bound the size of a segment
+    long encodedBytes() {
+        return encodedBytes + open.sizeEstimate();
+    }
+
+    // Finishes the open block; the writer takes no more ticks afterwards
+    void finish() {
+        if (open.count() > 0) {
+            sealBlock();
+        }
+    }
+
+    @Override
+    String label() {
+        return label;
+    }
+
+    @Override
+    int blockCount() {
+        return sealedBlocks + (open.count() > 0 ? 1 : 0);
+    }
+
+    @Override
+    long blockStart(int block) {
+        return block < sealedBlocks ? blockStarts[block] : open.firstTimestamp();
+    }
+
+    @Override
+    int blockTicks(int block) {
+        return block < sealedBlocks ? blockTicks[block] : open.count();
+    }
+
+    @Override
+    ByteBuffer blockBuffer(int block) {
+        if (block < sealedBlocks) {
+            return blocks[block];
+        }
+        if (openSnapshot == null) {
+            openSnapshot = ByteBuffer.wrap(open.snapshot());
+        }
+        return openSnapshot;
+    }
+
+    @Override
+    int blockOffset(int block) {
+        return 0;
+    }
+
+    @Override
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    @Override
+    double lastRate() {
+        return lastRate;
+    }
+}
@@ -0,0 +1,79 @@
+package currencyconverter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holder of the current immutable rate snapshot. Writers build a complete
+ * {@link ConversionEngine} off to the side and publish it with a single reference swap,
+ * so readers never lock and never observe a partially applied update.
+ *
+ * Every published snapshot is stamped with the next version (see
+ * {@link ConversionEngine#version()}), and concurrent writers are ordered by the swap
+ * itself. Listeners see snapshots in version order; one published while a newer one was
+ * already being delivered is skipped, since it is superseded.
+ */
+public class RateStore {
+    private final AtomicReference<ConversionEngine> current;
+    private final List<Consumer<ConversionEngine>> listeners = new CopyOnWriteArrayList<>();
+    // Guards delivery order only; readers of current() never take it
+    private final Object deliveryLock = new Object();
+    private long deliveredVersion;
+
+    public RateStore(ConversionEngine initial) {
+        this.current = new AtomicReference<>(initial.stamp(1, null));
+    }
+
+    public ConversionEngine current() {
+        return current.get();
+    }
+
+    public long version() {
+        return current.get().version();
+    }
+
+    // Returns the snapshot as stamped and published
+    public ConversionEngine publish(ConversionEngine next) {
+        while (true) {
+            ConversionEngine previous = current.get();
+            ConversionEngine stamped = next.stamp(previous.version() + 1, previous);
+            if (current.compareAndSet(previous, stamped)) {
+                notifyListeners(stamped);
+                return stamped;
+            }
+        }
+    }
+
+    // Publishes only if no other writer has swapped in a snapshot since expected was read
+    public boolean compareAndPublish(ConversionEngine expected, ConversionEngine next) {
+        ConversionEngine stamped = next.stamp(expected.version() + 1, expected);
+        if (!current.compareAndSet(expected, stamped)) {
+            return false;
+        }
+        notifyListeners(stamped);
+        return true;
+    }
+
+    private void notifyListeners(ConversionEngine next) {
+        synchronized (deliveryLock) {
+            if (next.version() <= deliveredVersion) {
+                return;
+            }
+            deliveredVersion = next.version();
+            for (Consumer<ConversionEngine> listener : listeners) {
+                listener.accept(next);
+            }
+        }
+    }
+
+    // Listeners run on the publishing thread and must hand UI work off to the EDT
+    public void addListener(Consumer<ConversionEngine> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ConversionEngine> listener) {
+        listeners.remove(listener);
+    }
+}
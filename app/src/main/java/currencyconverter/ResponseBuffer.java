@@ -0,0 +1,172 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Growable byte buffer that response bodies are encoded into directly as ASCII, so a
+ * pooled instance serves any number of requests without producing garbage. Also used to
+ * slurp request bodies. Not thread-safe; one request owns it at a time.
+ */
+final class ResponseBuffer {
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L
+    };
+    private static final byte[] NULL_BYTES = { 'n', 'u', 'l', 'l' };
+
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int length;
+    private final byte[] digits = new byte[20];
+
+    ResponseBuffer(int capacity) {
+        bytes = new byte[capacity];
+        view = ByteBuffer.wrap(bytes);
+    }
+
+    ResponseBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    int length() {
+        return length;
+    }
+
+    int capacity() {
+        return bytes.length;
+    }
+
+    byte get(int index) {
+        return bytes[index];
+    }
+
+    // Heap view over the whole backing array, for the byte-level parsers
+    ByteBuffer view() {
+        return view;
+    }
+
+    ResponseBuffer put(byte b) {
+        ensure(1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    ResponseBuffer put(char c) {
+        return put((byte) c);
+    }
+
+    ResponseBuffer put(byte[] src) {
+        ensure(src.length);
+        System.arraycopy(src, 0, bytes, length, src.length);
+        length += src.length;
+        return this;
+    }
+
+    // Codes, labels and keys are ASCII; anything else is replaced rather than encoded
+    ResponseBuffer putAscii(CharSequence text) {
+        int n = text.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            bytes[length++] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        return this;
+    }
+
+    ResponseBuffer putQuoted(CharSequence text) {
+        put('"');
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+            }
+            put(c < 0x20 || c >= 0x80 ? '?' : c);
+        }
+        return put('"');
+    }
+
+    ResponseBuffer putLong(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return putAscii(Long.toString(value));
+            }
+            put('-');
+            value = -value;
+        }
+        return putDigits(value, 1);
+    }
+
+    // Half-up fixed point with 0-9 decimals; non-finite values become JSON null
+    ResponseBuffer putFixed(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return put(NULL_BYTES);
+        }
+        long scale = POW10[decimals];
+        double scaled = Math.abs(value) * scale;
+        if (!(scaled < 9e15)) {
+            return putAscii(Double.toString(value));
+        }
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            put('-');
+        }
+        putDigits(units / scale, 1);
+        if (decimals > 0) {
+            put('.');
+            putDigits(units % scale, decimals);
+        }
+        return this;
+    }
+
+    private ResponseBuffer putDigits(long value, int minDigits) {
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n < minDigits) {
+            digits[n++] = '0';
+        }
+        ensure(n);
+        while (n > 0) {
+            bytes[length++] = digits[--n];
+        }
+        return this;
+    }
+
+    // Replaces the contents with the whole stream; rejects bodies past maxBytes
+    ResponseBuffer readFrom(InputStream in, int maxBytes) throws IOException {
+        length = 0;
+        while (true) {
+            if (length == bytes.length) {
+                if (length >= maxBytes) {
+                    throw new IllegalArgumentException("Request body larger than " + maxBytes + " bytes");
+                }
+                ensure(1);
+            }
+            int n = in.read(bytes, length, bytes.length - length);
+            if (n < 0) {
+                return this;
+            }
+            length += n;
+        }
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, length + extra)];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+            view = ByteBuffer.wrap(bytes);
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * What-if revaluation of a portfolio under many shocked rate sets. A scenario is a sparse
+ * list of shocks over the engine's base rates, each a relative change in one currency's
+ * value against USD (-0.10: the currency loses a tenth of its value). Positions are netted
+ * into one USD exposure per currency up front, so revaluing the portfolio under a scenario
+ * costs one multiply-add per shocked currency, however many positions there are.
+ *
+ * Scenarios are read and evaluated a {@link Block} at a time. Large blocks are split
+ * across the common fork-join pool, and P&L is handed to the sink in input order before
+ * the block is reused, so memory stays at one block whatever the scenario count.
+ */
+public final class ScenarioEngine {
+    static final int BLOCK_SCENARIOS = 4096;
+    static final int WORST_KEPT = 10;
+    // Below this many shocks in a block the fork-join overhead outweighs the work
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int CHUNK_SCENARIOS = 256;
+
+    private final ConversionEngine engine;
+    private final int reportId;
+    // USD value held in each currency
+    private final double[] exposures;
+    private final double baseUsd;
+
+    public ScenarioEngine(ConversionEngine engine, int reportId, double[] amounts, int[] currencyIds) {
+        this(engine, reportId, net(engine, amounts, currencyIds));
+    }
+
+    // exposures: USD value held per currency ID, as accumulated by addPosition
+    ScenarioEngine(ConversionEngine engine, int reportId, double[] exposures) {
+        if (exposures.length != engine.size()) {
+            throw new IllegalArgumentException("One exposure per currency expected");
+        }
+        this.engine = engine;
+        this.reportId = reportId;
+        this.exposures = exposures;
+        double usd = 0;
+        for (double exposure : exposures) {
+            usd += exposure;
+        }
+        this.baseUsd = usd;
+    }
+
+    private static double[] net(ConversionEngine engine, double[] amounts, int[] currencyIds) {
+        if (currencyIds.length < amounts.length) {
+            throw new IllegalArgumentException("Column lengths do not match");
+        }
+        double[] exposures = new double[engine.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            addPosition(engine, exposures, amounts[i], currencyIds[i]);
+        }
+        return exposures;
+    }
+
+    static void addPosition(ConversionEngine engine, double[] exposures, double amount, int currencyId) {
+        exposures[currencyId] += amount / engine.rate(currencyId);
+    }
+
+    public ConversionEngine engine() {
+        return engine;
+    }
+
+    // Portfolio value at the base rates, in the reporting currency
+    public double baseValue() {
+        return baseUsd * engine.rate(reportId);
+    }
+
+    // Fills the block's P&L, in the reporting currency, for every scenario in it
+    void evaluate(Block block) {
+        int count = block.count;
+        if (block.shocks >= PARALLEL_THRESHOLD && count > CHUNK_SCENARIOS) {
+            int chunks = (count + CHUNK_SCENARIOS - 1) / CHUNK_SCENARIOS;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> evaluate(block,
+                    chunk * CHUNK_SCENARIOS, Math.min(count, (chunk + 1) * CHUNK_SCENARIOS)));
+        } else {
+            evaluate(block, 0, count);
+        }
+    }
+
+    // P&L = rate(report) * (sum of exposure * change - baseUsd * reportChange) / (1 + reportChange),
+    // computed from the deltas so that small P&L on a large book keeps its precision
+    private void evaluate(Block block, int from, int to) {
+        int[] offsets = block.offsets;
+        int[] ids = block.ids;
+        double[] changes = block.changes;
+        double[] pnl = block.pnl;
+        double reportRate = engine.rate(reportId);
+        for (int s = from; s < to; s++) {
+            double delta = 0;
+            double reportChange = 0;
+            for (int k = offsets[s]; k < offsets[s + 1]; k++) {
+                int id = ids[k];
+                delta += exposures[id] * changes[k];
+                if (id == reportId) {
+                    reportChange = changes[k];
+                }
+            }
+            pnl[s] = reportRate * (delta - baseUsd * reportChange) / (1 + reportChange);
+        }
+    }
+
+    /** Receives each scenario's P&L in input order. */
+    public interface PnlSink {
+        void accept(String scenario, double pnl) throws IOException;
+    }
+
+    // Reads, evaluates and streams every scenario from the reader
+    public Summary run(ScenarioReader reader, PnlSink sink) throws IOException {
+        Block block = new Block(BLOCK_SCENARIOS, engine.size());
+        Summary summary = new Summary();
+        while (reader.read(block) > 0) {
+            evaluate(block);
+            for (int s = 0; s < block.count; s++) {
+                summary.add(block.names[s], block.pnl[s]);
+                if (sink != null) {
+                    sink.accept(block.names[s], block.pnl[s]);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * A batch of scenarios in compressed rows: the shocks of scenario s are
+     * ids/changes[offsets[s], offsets[s + 1]). Shock arrays grow as needed and are kept
+     * across {@link #clear}.
+     */
+    static final class Block {
+        private final String[] names;
+        private final int[] offsets;
+        private final double[] pnl;
+        private int[] ids;
+        private double[] changes;
+        private int count;
+        private int shocks;
+        // Where each currency sits in the scenario being built, valid while its stamp matches
+        private final int[] stamps;
+        private final int[] slots;
+        private int stamp;
+
+        Block(int capacity, int currencies) {
+            names = new String[capacity];
+            offsets = new int[capacity + 1];
+            pnl = new double[capacity];
+            ids = new int[Math.max(16, capacity)];
+            changes = new double[ids.length];
+            stamps = new int[currencies];
+            slots = new int[currencies];
+        }
+
+        int size() {
+            return count;
+        }
+
+        boolean isFull() {
+            return count == names.length;
+        }
+
+        String name(int scenario) {
+            return names[scenario];
+        }
+
+        double pnl(int scenario) {
+            return pnl[scenario];
+        }
+
+        void begin(String name) {
+            if (isFull()) {
+                throw new IllegalStateException("Block is full");
+            }
+            names[count] = name;
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        // A later shock to the same currency in one scenario replaces the earlier one
+        void shock(int id, double change) {
+            if (!(change > -1) || Double.isInfinite(change)) {
+                throw new IllegalArgumentException("Shock must be a finite change above -100%: " + change);
+            }
+            if (stamps[id] == stamp) {
+                changes[slots[id]] = change;
+                return;
+            }
+            if (shocks == ids.length) {
+                ids = Arrays.copyOf(ids, shocks * 2);
+                changes = Arrays.copyOf(changes, shocks * 2);
+            }
+            stamps[id] = stamp;
+            slots[id] = shocks;
+            ids[shocks] = id;
+            changes[shocks++] = change;
+        }
+
+        void end() {
+            offsets[++count] = shocks;
+        }
+
+        void clear() {
+            count = 0;
+            shocks = 0;
+        }
+    }
+
+    /** Count, mean and extremes over every evaluated scenario, with the largest losses. */
+    public static final class Summary {
+        private long count;
+        private double sum;
+        private String bestName;
+        private double best = Double.NEGATIVE_INFINITY;
+        // Ascending P&L, so the largest loss first
+        private final String[] worstNames = new String[WORST_KEPT];
+        private final double[] worst = new double[WORST_KEPT];
+        private int worstCount;
+
+        void add(String name, double pnl) {
+            count++;
+            sum += pnl;
+            if (pnl > best) {
+                best = pnl;
+                bestName = name;
+            }
+            int i = worstCount;
+            while (i > 0 && pnl < worst[i - 1]) {
+                i--;
+            }
+            if (i == WORST_KEPT) {
+                return;
+            }
+            int kept = Math.min(worstCount, WORST_KEPT - 1);
+            System.arraycopy(worst, i, worst, i + 1, kept - i);
+            System.arraycopy(worstNames, i, worstNames, i + 1, kept - i);
+            worst[i] = pnl;
+            worstNames[i] = name;
+            worstCount = kept + 1;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public String bestName() {
+            return bestName;
+        }
+
+        public double best() {
+            return best;
+        }
+
+        // Up to ten largest losses, worst first
+        public int worstCount() {
+            return worstCount;
+        }
+
+        public String worstName(int rank) {
+            return worstNames[rank];
+        }
+
+        public double worst(int rank) {
+            return worst[rank];
+        }
+    }
+
+    /**
+     * Scenario file reader. One scenario per line, named before a colon, with shocks
+     * separated by commas or spaces:
+     *
+     * <pre>
+     * # comment
+     * &#64;EM = BRL INR MXN PKR TRY ZAR
+     * em-selloff: &#64;EM=-10%
+     * usd-rally: EUR=-5%, JPY=-8%, GBP=-0.04
+     * </pre>
+     *
+     * A shock targets a code or a group; "&#64;NAME = codes" lines define groups and
+     * &#64;ALL is every currency. Changes ending in % are percentages, others fractions.
+     * A later shock to the same currency within a line replaces the earlier one.
+     */
+    public static final class ScenarioReader implements Closeable {
+        private final ConversionEngine engine;
+        private final BufferedReader in;
+        private static final Pattern SEPARATORS = Pattern.compile("[\\s,]+");
+
+        private final Map<String, int[]> groups = new HashMap<>();
+        private long lineNumber;
+
+        public ScenarioReader(ConversionEngine engine, Reader in) {
+            this.engine = engine;
+            this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+            int[] all = new int[engine.size()];
+            for (int id = 0; id < all.length; id++) {
+                all[id] = id;
+            }
+            groups.put("ALL", all);
+        }
+
+        // Fills the cleared block with up to its capacity of scenarios; returns how many
+        int read(Block block) throws IOException {
+            block.clear();
+            String line;
+            while (!block.isFull() && (line = in.readLine()) != null) {
+                lineNumber++;
+                try {
+                    parseLine(line.trim(), block);
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Line " + lineNumber + ": " + ex.getMessage(), ex);
+                }
+            }
+            return block.size();
+        }
+
+        private void parseLine(String line, Block block) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                return;
+            }
+            if (line.startsWith("@")) {
+                int equals = line.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Group needs '@NAME = codes'");
+                }
+                String name = line.substring(1, equals).trim().toUpperCase();
+                String[] codes = SEPARATORS.split(line.substring(equals + 1).trim());
+                int[] ids = new int[codes.length];
+                for (int i = 0; i < codes.length; i++) {
+                    ids[i] = idOf(codes[i]);
+                }
+                groups.put(name, ids);
+                return;
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Scenario needs 'name: shocks'");
+            }
+            block.begin(line.substring(0, colon).trim());
+            String shocks = line.substring(colon + 1).trim();
+            if (!shocks.isEmpty()) {
+                for (String shock : SEPARATORS.split(shocks)) {
+                    int equals = shock.indexOf('=');
+                    if (equals <= 0) {
+                        throw new IllegalArgumentException("Shock needs 'TARGET=change': " + shock);
+                    }
+                    double change = parseChange(shock.substring(equals + 1));
+                    String target = shock.substring(0, equals);
+                    if (target.startsWith("@")) {
+                        int[] ids = groups.get(target.substring(1).toUpperCase());
+                        if (ids == null) {
+                            throw new IllegalArgumentException("Unknown group " + target);
+                        }
+                        for (int id : ids) {
+                            block.shock(id, change);
+                        }
+                    } else {
+                        block.shock(idOf(target), change);
+                    }
+                }
+            }
+            block.end();
+        }
+
+        private int idOf(String code) {
+            int id = engine.idOfCode(code);
+            if (id < 0) {
+                throw new IllegalArgumentException("Unknown currency " + code);
+            }
+            return id;
+        }
+
+        private static double parseChange(String text) {
+            try {
+                return text.endsWith("%")
+                        ? Double.parseDouble(text.substring(0, text.length() - 1)) / 100
+                        : Double.parseDouble(text);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Bad change " + text);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Command line entry point for {@code --scenarios}; returns the process exit status.
+     * Positions are "amount,currency" CSV lines (a non-numeric first line is a header).
+     * P&L per scenario goes to --out, or stdout, as CSV; the summary goes to stderr.
+     */
+    static int run(String[] args) {
+        String positions = null;
+        String scenarios = null;
+        String report = "USD";
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--report":
+                        report = args[++i];
+                        break;
+                    case "--out":
+                        output = args[++i];
+                        break;
+                    default:
+                        if (positions == null) {
+                            positions = args[i];
+                        } else if (scenarios == null) {
+                            scenarios = args[i];
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                }
+            }
+            if (positions == null || scenarios == null) {
+                throw new IllegalArgumentException("Positions and scenario files are required");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            System.err.println("Usage: CurrencyConverterApp --scenarios <positions.csv> <scenarios.txt>"
+                    + " [--report USD] [--out pnl.csv]");
+            return 2;
+        }
+
+        ConversionEngine engine = DefaultRates.engine();
+        int reportId = engine.idOfCode(report);
+        if (reportId < 0) {
+            System.err.println("ERROR: Unknown currency " + report);
+            return 2;
+        }
+        long start = System.nanoTime();
+        try (ScenarioReader reader = new ScenarioReader(engine,
+                     Files.newBufferedReader(Paths.get(scenarios), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(output == null
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8), 1 << 16)) {
+            ScenarioEngine scenarioEngine = new ScenarioEngine(engine, reportId,
+                    readExposures(engine, positions));
+            FastFormat format = new FastFormat(Locale.ROOT, TimeZone.getTimeZone("UTC"));
+            StringBuilder row = new StringBuilder(64);
+            out.write("scenario,pnl_" + engine.code(reportId).toLowerCase() + "\n");
+            Summary summary = scenarioEngine.run(reader, (name, pnl) -> {
+                row.setLength(0);
+                row.append(name).append(',');
+                format.appendFixed(row, pnl, 2).append('\n');
+                out.append(row);
+            });
+            out.flush();
+
+            String code = engine.code(reportId);
+            System.err.printf("Base value %.2f %s, %,d scenarios in %.2f s, mean P&L %.2f %s%n",
+                    scenarioEngine.baseValue(), code, summary.count(), (System.nanoTime() - start) / 1e9,
+                    summary.mean(), code);
+            if (summary.count() > 0) {
+                System.err.printf("Best: %s %.2f%n", summary.bestName(), summary.best());
+                for (int rank = 0; rank < summary.worstCount(); rank++) {
+                    System.err.printf("Worst %d: %s %.2f%n", rank + 1, summary.worstName(rank), summary.worst(rank));
+                }
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("ERROR: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static double[] readExposures(ConversionEngine engine, String path) throws IOException {
+        double[] exposures = new double[engine.size()];
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                try {
+                    if (comma < 0) {
+                        throw new IllegalArgumentException("Expected 'amount,currency'");
+                    }
+                    double amount = Double.parseDouble(line.substring(0, comma).trim());
+                    int id = engine.idOfCode(line.substring(comma + 1).trim());
+                    if (id < 0) {
+                        throw new IllegalArgumentException("Unknown currency " + line.substring(comma + 1).trim());
+                    }
+                    addPosition(engine, exposures, amount, id);
+                } catch (NumberFormatException ex) {
+                    if (lineNumber > 1) {
+                        throw new IOException(path + " line " + lineNumber + ": bad amount");
+                    }
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException(path + " line " + lineNumber + ": " + ex.getMessage());
+                }
+            }
+        }
+        return exposures;
+    }
+}
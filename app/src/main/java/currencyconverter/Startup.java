@@ -0,0 +1,57 @@
+package currencyconverter;
+
+import java.time.Instant;
+
+/**
+ * Startup phases of the UI, timed from JVM start to the first painted frame.
+ * {@code -Dcurrency.startup.trace=true} prints them to stderr and
+ * {@code -Dcurrency.startup.exit=true} exits once the first frame is up, for timing runs
+ * and AppCDS training runs.
+ */
+final class Startup {
+    static final boolean EXIT_AFTER_FIRST_FRAME = Boolean.getBoolean("currency.startup.exit");
+    private static final boolean TRACE = EXIT_AFTER_FIRST_FRAME || Boolean.getBoolean("currency.startup.trace");
+
+    private static final StringBuilder PHASES = new StringBuilder(256);
+    private static long originNanos = System.nanoTime();
+    private static long lastNanos = originNanos;
+    private static volatile long firstFrameMillis = -1;
+
+    private Startup() {
+    }
+
+    // Called first thing in main; each mark then times the phase since the previous one
+    static synchronized void begin() {
+        originNanos = System.nanoTime();
+        lastNanos = originNanos;
+    }
+
+    static synchronized void mark(String phase) {
+        long now = System.nanoTime();
+        PHASES.append("  ").append(phase).append(' ').append((now - lastNanos) / 1_000_000).append(" ms\n");
+        lastNanos = now;
+    }
+
+    // JVM start is read only here, after the frame, so timing costs nothing beforehand
+    static synchronized void firstFrame() {
+        if (firstFrameMillis >= 0) {
+            return;
+        }
+        mark("first frame");
+        long jvmStart = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli)
+                .orElse(System.currentTimeMillis());
+        long sinceMain = (System.nanoTime() - originNanos) / 1_000_000;
+        long toMain = Math.max(0, System.currentTimeMillis() - jvmStart - sinceMain);
+        firstFrameMillis = toMain + (lastNanos - originNanos) / 1_000_000;
+        if (TRACE) {
+            System.err.print("Startup: JVM to main " + toMain + " ms\n" + PHASES
+                    + "  time to first frame " + firstFrameMillis + " ms\n");
+        }
+    }
+
+    // Shown on the Diagnostics tab and as the startupFirstFrameMillis gauge; -1 until the
+    // first frame has been painted
+    static long firstFrameMillis() {
+        return firstFrameMillis;
+    }
+}
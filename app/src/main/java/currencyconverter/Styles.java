@@ -0,0 +1,35 @@
+package currencyconverter;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fonts and colors shared by every tab. Each font is created and resolved once, on first
+ * use, instead of once per component or per rendered cell. EDT only.
+ */
+final class Styles {
+    static final String FAMILY = "Poppins";
+
+    static final Color BUTTON_HOVER = new Color(30, 30, 30);
+    static final Color BUTTON_PRESSED = new Color(60, 60, 60);
+
+    // Leaderboard row backgrounds, indexed like LeaderboardTableModel.BANDS
+    static final Color[] BAND_COLORS = {
+            new Color(200, 255, 200),
+            new Color(220, 255, 220),
+            new Color(255, 255, 220),
+            new Color(255, 230, 200),
+            new Color(255, 200, 200)
+    };
+
+    private static final Map<Integer, Font> FONTS = new HashMap<>();
+
+    private Styles() {
+    }
+
+    static Font font(int style, int size) {
+        return FONTS.computeIfAbsent(style << 16 | size, key -> new Font(FAMILY, style, size));
+    }
+}
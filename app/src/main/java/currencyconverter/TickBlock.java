@@ -0,0 +1,234 @@
+package currencyconverter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style encoding of one block of (timestamp, rate) ticks: timestamps as
+ * delta-of-delta in variable-width buckets, rates as the XOR with the previous rate with
+ * its leading and trailing zero bits elided. A block starts with its first tick in raw
+ * form, so it can be decoded on its own, and ends with eight bytes of padding so the
+ * reader can always load a whole word.
+ */
+final class TickBlock {
+    static final int MAX_TICKS = 128;
+    private static final int PADDING = Long.BYTES;
+
+    private TickBlock() {
+    }
+
+    static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int length;
+        private long accumulator;
+        private int accumulatedBits;
+
+        private int count;
+        private long firstTimestamp;
+        private long previousTimestamp;
+        private long previousDelta;
+        private long previousBits;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        int count() {
+            return count;
+        }
+
+        long firstTimestamp() {
+            return firstTimestamp;
+        }
+
+        boolean isFull() {
+            return count == MAX_TICKS;
+        }
+
+        // Bytes written so far, before the final flush and padding
+        int sizeEstimate() {
+            return length + PADDING + 8;
+        }
+
+        void append(long timestamp, double rate) {
+            long bits = Double.doubleToRawLongBits(rate);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                write(timestamp, 64);
+                write(bits, 64);
+            } else {
+                long delta = timestamp - previousTimestamp;
+                writeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+                writeXor(bits ^ previousBits);
+            }
+            previousTimestamp = timestamp;
+            previousBits = bits;
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                write(0b0, 1);
+            } else if (dod >= -64 && dod < 64) {
+                write(0b10, 2);
+                write(dod, 7);
+            } else if (dod >= -256 && dod < 256) {
+                write(0b110, 3);
+                write(dod, 9);
+            } else if (dod >= -2048 && dod < 2048) {
+                write(0b1110, 4);
+                write(dod, 12);
+            } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+                write(0b11110, 5);
+                write(dod, 32);
+            } else {
+                write(0b11111, 5);
+                write(dod, 64);
+            }
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                write(0b0, 1);
+                return;
+            }
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Fits inside the previous meaningful window
+                write(0b10, 2);
+                write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(meaningful - 1, 6);
+                write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        // Low n bits of value, most significant first
+        private void write(long value, int n) {
+            if (n > 32) {
+                write(value >>> 32, n - 32);
+                write(value, 32);
+                return;
+            }
+            accumulator = (accumulator << n) | (value & ((1L << n) - 1));
+            accumulatedBits += n;
+            if (length + 8 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while (accumulatedBits >= 8) {
+                accumulatedBits -= 8;
+                bytes[length++] = (byte) (accumulator >>> accumulatedBits);
+            }
+        }
+
+        // Flushes the last partial byte and the padding; the writer is spent afterwards
+        byte[] finish() {
+            if (accumulatedBits > 0) {
+                write(0, 8 - accumulatedBits);
+            }
+            return Arrays.copyOf(bytes, length + PADDING);
+        }
+
+        // Encoded copy of what has been appended so far, leaving the writer usable
+        byte[] snapshot() {
+            byte[] copy = Arrays.copyOf(bytes, length + 1 + PADDING);
+            if (accumulatedBits > 0) {
+                copy[length] = (byte) (accumulator << (8 - accumulatedBits));
+            }
+            return copy;
+        }
+    }
+
+    /** Sequential decoder over one encoded block; reusable via {@link #reset}. */
+    static final class Reader {
+        private ByteBuffer buffer;
+        private int base;
+        private long position;
+        private int remaining;
+        private boolean first;
+
+        private long timestamp;
+        private long delta;
+        private long bits;
+        private int leading;
+        private int trailing;
+
+        Reader reset(ByteBuffer buffer, int offset, int count) {
+            this.buffer = buffer;
+            this.base = offset;
+            this.position = 0;
+            this.remaining = count;
+            this.first = true;
+            this.delta = 0;
+            return this;
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            if (first) {
+                first = false;
+                timestamp = read(64);
+                bits = read(64);
+                return true;
+            }
+            delta += readDeltaOfDelta();
+            timestamp += delta;
+            if (read(1) != 0) {
+                if (read(1) != 0) {
+                    leading = (int) read(5);
+                    int meaningful = (int) read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                bits ^= read(64 - leading - trailing) << trailing;
+            }
+            return true;
+        }
+
+        long timestamp() {
+            return timestamp;
+        }
+
+        double rate() {
+            return Double.longBitsToDouble(bits);
+        }
+
+        private long readDeltaOfDelta() {
+            if (read(1) == 0) {
+                return 0;
+            }
+            if (read(1) == 0) {
+                return signed(read(7), 7);
+            }
+            if (read(1) == 0) {
+                return signed(read(9), 9);
+            }
+            if (read(1) == 0) {
+                return signed(read(12), 12);
+            }
+            return read(1) == 0 ? signed(read(32), 32) : read(64);
+        }
+
+        private static long signed(long value, int n) {
+            return (value << (64 - n)) >> (64 - n);
+        }
+
+        private long read(int n) {
+            if (n > 56) {
+                long high = read(n - 32);
+                return (high << 32) | read(32);
+            }
+            long word = buffer.getLong(base + (int) (position >>> 3));
+            int shift = 64 - (int) (position & 7) - n;
+            position += n;
+            return (word >>> shift) & ((1L << n) - 1);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package currencyconverter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One currency's ticks inside a segment, as a run of {@link TickBlock}s in time order.
+ * Lookups binary-search the block start times and decode a single block.
+ */
+abstract class TickSeries {
+    abstract String label();
+
+    abstract int blockCount();
+
+    abstract long blockStart(int block);
+
+    abstract int blockTicks(int block);
+
+    abstract ByteBuffer blockBuffer(int block);
+
+    abstract int blockOffset(int block);
+
+    abstract long lastTimestamp();
+
+    abstract double lastRate();
+
+    // Rate in force at timestamp, or NaN if this series starts after it
+    double rateAt(long timestamp, TickBlock.Reader reader) {
+        int blocks = blockCount();
+        if (blocks == 0 || timestamp < blockStart(0)) {
+            return Double.NaN;
+        }
+        if (timestamp >= lastTimestamp()) {
+            return lastRate();
+        }
+        int block = floorBlock(timestamp);
+        reader.reset(blockBuffer(block), blockOffset(block), blockTicks(block));
+        double rate = Double.NaN;
+        while (reader.next() && reader.timestamp() <= timestamp) {
+            rate = reader.rate();
+        }
+        return rate;
+    }
+
+    // Calls consumer for every tick in [from, to]; returns the last rate passed on
+    double scan(long from, long to, double previousRate, RateHistory.TickConsumer consumer,
+                TickBlock.Reader reader) {
+        int blocks = blockCount();
+        if (blocks == 0 || to < blockStart(0) || from > lastTimestamp()) {
+            return previousRate;
+        }
+        double last = previousRate;
+        for (int block = Math.max(floorBlock(from), 0); block < blocks && blockStart(block) <= to; block++) {
+            reader.reset(blockBuffer(block), blockOffset(block), blockTicks(block));
+            while (reader.next()) {
+                long timestamp = reader.timestamp();
+                if (timestamp > to) {
+                    return last;
+                }
+                // Segments open with a carried-forward copy of each rate; skip the repeats
+                if (timestamp >= from && Double.compare(reader.rate(), last) != 0) {
+                    last = reader.rate();
+                    consumer.accept(timestamp, last);
+                }
+            }
+        }
+        return last;
+    }
+
+    // Last block starting at or before timestamp, -1 if none
+    private int floorBlock(long timestamp) {
+        int low = 0;
+        int high = blockCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockStart(mid) <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
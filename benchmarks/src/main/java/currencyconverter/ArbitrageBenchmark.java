@@ -0,0 +1,104 @@
+package currencyconverter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Re-check after a few quotes move (incremental SPFA), a full check while a cycle persists, and routing
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArbitrageBenchmark {
+    // Direct quotes per currency on top of its USD legs, each side with a 0.1% spread
+    private static final int QUOTES_PER_CURRENCY = 20;
+    private static final double SPREAD = 0.999;
+
+    @Param({ "75", "300", "500" })
+    int currencyCount;
+
+    @Param({ "5" })
+    int changedRates;
+
+    private ArbitrageDetector consistent;
+    private ArbitrageDetector withCycle;
+    private String[] codes;
+    private double[] usdRates;
+    private int[] quoteFrom;
+    private int[] quoteTo;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ConversionEngine engine = new ConversionEngine(BenchmarkCatalogs.rates(currencyCount));
+        codes = new String[engine.size()];
+        usdRates = new double[engine.size()];
+        for (int id = 0; id < engine.size(); id++) {
+            codes[id] = engine.code(id);
+            usdRates[id] = engine.rate(id);
+        }
+        random = new Random(11);
+        int quotes = currencyCount * QUOTES_PER_CURRENCY;
+        quoteFrom = new int[quotes];
+        quoteTo = new int[quotes];
+        consistent = new ArbitrageDetector();
+        withCycle = new ArbitrageDetector();
+        consistent.update(engine);
+        withCycle.update(engine);
+        for (int i = 0; i < quotes; i++) {
+            int from = random.nextInt(codes.length);
+            int to = random.nextInt(codes.length - 1);
+            quoteFrom[i] = from;
+            quoteTo[i] = to >= from ? to + 1 : to;
+            double rate = usdRates[quoteTo[i]] / usdRates[from] * SPREAD;
+            consistent.setRate(codes[from], codes[quoteTo[i]], rate);
+            withCycle.setRate(codes[from], codes[quoteTo[i]], rate);
+        }
+        // One quote 1% rich: there is always a cycle, so every check runs in full
+        withCycle.setRate(codes[quoteFrom[0]], codes[quoteTo[0]],
+                usdRates[quoteTo[0]] / usdRates[quoteFrom[0]] * 1.01);
+        consistent.check();
+        withCycle.check();
+    }
+
+    // Moves quotes within the spread, so the graph stays free of cycles
+    private void moveQuotes(ArbitrageDetector detector) {
+        for (int i = 0; i < changedRates; i++) {
+            int quote = 1 + random.nextInt(quoteFrom.length - 1);
+            double fair = usdRates[quoteTo[quote]] / usdRates[quoteFrom[quote]];
+            detector.setRate(codes[quoteFrom[quote]], codes[quoteTo[quote]],
+                    fair * (SPREAD + random.nextDouble() * 0.0005));
+        }
+    }
+
+    @Benchmark
+    public int incrementalCheck() {
+        moveQuotes(consistent);
+        return consistent.check().size();
+    }
+
+    @Benchmark
+    public int fullCheckWithCycle() {
+        moveQuotes(withCycle);
+        return withCycle.check().size();
+    }
+
+    @Benchmark
+    public ArbitrageDetector.Route bestRoute() {
+        int i = next++;
+        return consistent.bestRoute(codes[i % codes.length], codes[(i * 7 + 3) % codes.length]);
+    }
+}
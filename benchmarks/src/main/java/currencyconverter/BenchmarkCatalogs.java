@@ -0,0 +1,28 @@
+package currencyconverter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Rate tables of a given size: the built-in table, trimmed or padded with synthetic currencies
+final class BenchmarkCatalogs {
+    private BenchmarkCatalogs() {
+    }
+
+    static Map<String, Double> rates(int currencyCount) {
+        Map<String, Double> base = CurrencyConverterApp.initializeExchangeRates();
+        Map<String, Double> rates = new HashMap<>();
+        for (Map.Entry<String, Double> entry : base.entrySet()) {
+            if (rates.size() == currencyCount) {
+                break;
+            }
+            rates.put(entry.getKey(), entry.getValue());
+        }
+        Random random = new Random(currencyCount);
+        for (int i = 0; rates.size() < currencyCount; i++) {
+            String code = "" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            rates.putIfAbsent("Z" + code + " (SYNTHETIC " + i + ")", Math.pow(10, random.nextDouble() * 5 - 1));
+        }
+        return rates;
+    }
+}
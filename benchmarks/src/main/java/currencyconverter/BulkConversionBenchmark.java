@@ -0,0 +1,86 @@
+package currencyconverter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One pair of rates over a column of amounts: per-call map lookup against the bulk kernels
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkConversionBenchmark {
+    private static final String FROM = "USD (US DOLLARS)";
+    private static final String TO = "PKR (PAKISTANI RUPEE)";
+
+    @Param({ "1000", "1000000" })
+    int batchSize;
+
+    private Map<String, Double> exchangeRates;
+    private BulkConverter bulk;
+    private int fromId;
+    private int toId;
+    private double[] amounts;
+    private double[] out;
+    private DoubleBuffer offHeapIn;
+    private DoubleBuffer offHeapOut;
+
+    @Setup
+    public void setUp() {
+        exchangeRates = CurrencyConverterApp.initializeExchangeRates();
+        ConversionEngine engine = new ConversionEngine(exchangeRates);
+        bulk = new BulkConverter(engine);
+        fromId = engine.idOf(FROM);
+        toId = engine.idOf(TO);
+
+        Random random = new Random(42);
+        amounts = new double[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            amounts[i] = random.nextDouble() * 10_000;
+        }
+        out = new double[batchSize];
+        offHeapIn = ByteBuffer.allocateDirect(batchSize * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        offHeapOut = ByteBuffer.allocateDirect(batchSize * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        offHeapIn.put(amounts).flip();
+    }
+
+    @Benchmark
+    public double[] perCallMapLookup() {
+        for (int i = 0; i < batchSize; i++) {
+            out[i] = amounts[i] * (exchangeRates.get(TO) / exchangeRates.get(FROM));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] bulkArray() {
+        bulk.convert(amounts, out, fromId, toId);
+        return out;
+    }
+
+    @Benchmark
+    public DoubleBuffer bulkDirectBuffer() {
+        offHeapIn.rewind();
+        offHeapOut.clear();
+        bulk.convert(offHeapIn, offHeapOut, fromId, toId);
+        return offHeapOut;
+    }
+}
@@ -0,0 +1,95 @@
+package currencyconverter;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// convertCurrency: the original map lookup path against the engine, per call and in bulk
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+    @Param({ "75", "170", "500" })
+    int currencyCount;
+
+    @Param({ "1", "1000" })
+    int batchSize;
+
+    private Map<String, Double> exchangeRates;
+    private ConversionEngine engine;
+    private BulkConverter bulk;
+    private String[] fromLabels;
+    private String[] toLabels;
+    private int[] fromIds;
+    private int[] toIds;
+    private double[] amounts;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        exchangeRates = BenchmarkCatalogs.rates(currencyCount);
+        engine = new ConversionEngine(exchangeRates);
+        bulk = new BulkConverter(engine);
+
+        Random random = new Random(7);
+        fromLabels = new String[batchSize];
+        toLabels = new String[batchSize];
+        fromIds = new int[batchSize];
+        toIds = new int[batchSize];
+        amounts = new double[batchSize];
+        out = new double[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            fromIds[i] = random.nextInt(currencyCount);
+            toIds[i] = random.nextInt(currencyCount);
+            fromLabels[i] = engine.label(fromIds[i]);
+            toLabels[i] = engine.label(toIds[i]);
+            amounts[i] = random.nextDouble() * 10_000;
+        }
+    }
+
+    @Benchmark
+    public double[] mapLookup() {
+        for (int i = 0; i < batchSize; i++) {
+            double fromRate = exchangeRates.get(fromLabels[i]);
+            double toRate = exchangeRates.get(toLabels[i]);
+            out[i] = amounts[i] * (toRate / fromRate);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] convertCurrency() {
+        for (int i = 0; i < batchSize; i++) {
+            out[i] = engine.convert(amounts[i], fromLabels[i], toLabels[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] convertById() {
+        for (int i = 0; i < batchSize; i++) {
+            out[i] = engine.convert(amounts[i], fromIds[i], toIds[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] bulkTriples() {
+        bulk.convert(amounts, fromIds, toIds, out);
+        return out;
+    }
+}
@@ -0,0 +1,64 @@
+package currencyconverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One type-ahead keystroke: the indexed search against filtering every label in turn
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencySearchBenchmark {
+    @Param({ "75", "500", "5000" })
+    int currencyCount;
+
+    @Param({ "u", "dol", "pakistani" })
+    String query;
+
+    private String[] labels;
+    private CurrencyIndex index;
+    private final int[] matches = new int[10];
+
+    @Setup
+    public void setUp() {
+        ConversionEngine engine = new ConversionEngine(BenchmarkCatalogs.rates(currencyCount));
+        labels = engine.labels();
+        index = new CurrencyIndex(engine);
+    }
+
+    @Benchmark
+    public int indexed() {
+        return index.search(query, matches);
+    }
+
+    // Case-insensitive substring filter over the display strings
+    @Benchmark
+    public List<String> linearFilter() {
+        String needle = query.toUpperCase(Locale.ROOT);
+        List<String> found = new ArrayList<>();
+        for (String label : labels) {
+            if (label.toUpperCase(Locale.ROOT).contains(needle)) {
+                found.add(label);
+                if (found.size() == matches.length) {
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+}
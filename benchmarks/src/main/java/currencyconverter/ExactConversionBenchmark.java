@@ -0,0 +1,101 @@
+package currencyconverter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A column of amounts through the double kernel, the scaled-long exact path and BigDecimal
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExactConversionBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    // USD->PKR is a plain cent-to-paisa pair; KWD->JPY crosses minor-unit scales
+    @Param({ "USD/PKR", "KWD/JPY" })
+    String pair;
+
+    private BulkConverter bulk;
+    private ExactConverter exact;
+    private int fromId;
+    private int toId;
+    private double[] amounts;
+    private double[] out;
+    private long[] minorAmounts;
+    private long[] wideMinorAmounts;
+    private long[] minorOut;
+    private BigDecimal[] decimalAmounts;
+    private BigDecimal[] decimalOut;
+    private BigDecimal crossRate;
+
+    @Setup
+    public void setUp() {
+        ConversionEngine engine = new ConversionEngine(CurrencyConverterApp.initializeExchangeRates());
+        bulk = new BulkConverter(engine);
+        exact = new ExactConverter(engine, RoundingMode.HALF_EVEN);
+        String[] codes = pair.split("/");
+        fromId = engine.idOfCode(codes[0]);
+        toId = engine.idOfCode(codes[1]);
+        crossRate = BigDecimal.valueOf(engine.rate(toId))
+                .divide(BigDecimal.valueOf(engine.rate(fromId)), 20, RoundingMode.HALF_EVEN);
+
+        Random random = new Random(42);
+        amounts = new double[BATCH_SIZE];
+        out = new double[BATCH_SIZE];
+        minorAmounts = new long[BATCH_SIZE];
+        wideMinorAmounts = new long[BATCH_SIZE];
+        minorOut = new long[BATCH_SIZE];
+        decimalAmounts = new BigDecimal[BATCH_SIZE];
+        decimalOut = new BigDecimal[BATCH_SIZE];
+        int units = exact.minorUnits(fromId);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            minorAmounts[i] = random.nextInt(1_000_000_000);
+            // Large enough that the quotient skips the estimate and takes the 128-bit divide
+            wideMinorAmounts[i] = 10_000_000_000_000_000L + random.nextInt(1_000_000_000);
+            amounts[i] = exact.toDouble(minorAmounts[i], fromId);
+            decimalAmounts[i] = BigDecimal.valueOf(minorAmounts[i], units);
+        }
+    }
+
+    @Benchmark
+    public double[] doubleKernel() {
+        bulk.convert(amounts, out, fromId, toId);
+        return out;
+    }
+
+    @Benchmark
+    public long[] exactScaledLong() {
+        exact.convert(minorAmounts, fromId, toId, minorOut);
+        return minorOut;
+    }
+
+    @Benchmark
+    public long[] exactWide128() {
+        exact.convert(wideMinorAmounts, fromId, toId, minorOut);
+        return minorOut;
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimal() {
+        int units = exact.minorUnits(toId);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            decimalOut[i] = decimalAmounts[i].multiply(crossRate).setScale(units, RoundingMode.HALF_EVEN);
+        }
+        return decimalOut;
+    }
+}
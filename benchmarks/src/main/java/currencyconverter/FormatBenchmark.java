@@ -0,0 +1,86 @@
+package currencyconverter;
+
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Amount and time formatting: the JDK formatters the display paths used against FastFormat
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+    private final double[] amounts = new double[1024];
+    private final StringBuilder sb = new StringBuilder(64);
+    private DecimalFormat df;
+    private FastFormat format;
+    private long millis;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = random.nextDouble() * Math.pow(10, random.nextInt(10));
+        }
+        df = new DecimalFormat("#,##0.00");
+        format = FastFormat.getDefault();
+        millis = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String decimalFormat() {
+        return df.format(amounts[next++ & 1023]);
+    }
+
+    @Benchmark
+    public StringBuilder fastFormat() {
+        sb.setLength(0);
+        return format.appendAmount(sb, amounts[next++ & 1023]);
+    }
+
+    @Benchmark
+    public String stringFormatRate() {
+        return String.format("%.4f", amounts[next++ & 1023]);
+    }
+
+    @Benchmark
+    public StringBuilder fastFormatRate() {
+        sb.setLength(0);
+        return format.appendFixed(sb, amounts[next++ & 1023], 4);
+    }
+
+    @Benchmark
+    public String simpleDateFormat() {
+        // The old history path built a formatter per row
+        return new SimpleDateFormat("HH:mm:ss").format(new Date(millis + next++));
+    }
+
+    @Benchmark
+    public StringBuilder fastTime() {
+        sb.setLength(0);
+        return format.appendTime(sb, millis + next++);
+    }
+
+    // One shared instance hammered from several threads; DecimalFormat cannot be shared this way
+    @Benchmark
+    @Threads(4)
+    public String sharedFastFormat() {
+        return format.formatAmount(amounts[next++ & 1023]);
+    }
+}
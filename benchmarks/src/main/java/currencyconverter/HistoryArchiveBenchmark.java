@@ -0,0 +1,99 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Exporting a full history log, and per-pair / per-hour totals streamed from the archive
+// against the same totals read record by record from the log
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryArchiveBenchmark {
+    private static final int ROWS = 100_000;
+
+    @Param({ "false", "true" })
+    boolean deflate;
+
+    private ConversionEngine engine;
+    private HistoryStore store;
+    private Path storeFile;
+    private Path archive;
+    private Path exportTarget;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = DefaultRates.engine();
+        storeFile = Files.createTempFile("history-archive-bench", ".bin");
+        Files.delete(storeFile);
+        store = HistoryStore.open(storeFile, ROWS);
+        Random random = new Random(5);
+        long time = 1_760_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            time += random.nextInt(30_000);
+            int from = random.nextInt(engine.size());
+            int to = random.nextInt(engine.size());
+            double amount = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            store.append(time, amount, engine.code(from), engine.code(to), amount * engine.crossRate(from, to));
+        }
+        archive = Files.createTempFile("history-archive-bench", ".cca");
+        exportTarget = Files.createTempFile("history-archive-bench-out", ".cca");
+        HistoryArchive.export(store, archive, deflate);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(storeFile);
+        Files.deleteIfExists(archive);
+        Files.deleteIfExists(exportTarget);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return HistoryArchive.export(store, exportTarget, deflate);
+    }
+
+    @Benchmark
+    public Map<String, HistoryArchive.Totals> volumeByPair() throws IOException {
+        return HistoryArchive.volumeByPair(archive);
+    }
+
+    @Benchmark
+    public SortedMap<Long, HistoryArchive.Totals> volumeByHour() throws IOException {
+        return HistoryArchive.volumeByHour(archive, engine);
+    }
+
+    @Benchmark
+    public Map<String, double[]> volumeByPairFromLog() throws IOException {
+        Map<String, double[]> totals = new HashMap<>();
+        for (long index = store.firstIndex(); index < store.firstIndex() + store.size(); index++) {
+            double[] pair = totals.computeIfAbsent(store.fromCode(index) + "/" + store.toCode(index),
+                    key -> new double[3]);
+            pair[0]++;
+            pair[1] += store.amount(index);
+            pair[2] += store.result(index);
+        }
+        return totals;
+    }
+}
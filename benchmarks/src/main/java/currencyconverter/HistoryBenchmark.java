@@ -0,0 +1,84 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// History row insertion: the old formatted DefaultTableModel row against the binary log
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+    @Param({ "1", "100" })
+    int batchSize;
+
+    private ConversionEngine engine;
+    private DecimalFormat df;
+    private DefaultTableModel legacyModel;
+    private HistoryTableModel historyModel;
+    private Path file;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        engine = new ConversionEngine(CurrencyConverterApp.initializeExchangeRates());
+        df = new DecimalFormat("#,##0.00");
+        legacyModel = new DefaultTableModel(new String[] { "Time", "Amount", "From", "To", "Result" }, 0);
+        file = Files.createTempFile("history-bench", ".bin");
+        Files.delete(file);
+        historyModel = new HistoryTableModel(HistoryStore.open(file, 100_000), engine, FastFormat.getDefault());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        historyModel.store().close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public DefaultTableModel defaultTableModelRow() {
+        // Same retention as the log so the two grow alike
+        if (legacyModel.getRowCount() >= 100_000) {
+            legacyModel.setRowCount(0);
+        }
+        for (int i = 0; i < batchSize; i++) {
+            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+            legacyModel.addRow(new Object[] {
+                    sdf.format(new Date()),
+                    df.format(100.0 + i),
+                    engine.label(0),
+                    engine.label(1),
+                    df.format(92.0 + i)
+            });
+        }
+        return legacyModel;
+    }
+
+    @Benchmark
+    public HistoryTableModel appendOnlyLogRow() throws IOException {
+        for (int i = 0; i < batchSize; i++) {
+            historyModel.append(System.currentTimeMillis(), 100.0 + i, engine.code(0), engine.code(1), 92.0 + i);
+        }
+        return historyModel;
+    }
+}
@@ -0,0 +1,67 @@
+package currencyconverter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Leaderboard after a rate refresh: full sort-and-classify against the incremental model
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+    @Param({ "75", "170", "500" })
+    int currencyCount;
+
+    // How many rates move between two consecutive snapshots
+    @Param({ "1", "10" })
+    int changedRates;
+
+    private ConversionEngine engine;
+    private ConversionEngine[] snapshots;
+    private LeaderboardTableModel model;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, Double> rates = BenchmarkCatalogs.rates(currencyCount);
+        engine = new ConversionEngine(rates);
+        model = new LeaderboardTableModel(engine, FastFormat.getDefault());
+
+        // A cycle of refreshes, each nudging a few random rates
+        Random random = new Random(42);
+        snapshots = new ConversionEngine[64];
+        for (int i = 0; i < snapshots.length; i++) {
+            for (int k = 0; k < changedRates; k++) {
+                String label = engine.label(random.nextInt(engine.size()));
+                rates.put(label, rates.get(label) * (0.9 + random.nextDouble() * 0.2));
+            }
+            snapshots[i] = new ConversionEngine(rates);
+        }
+    }
+
+    @Benchmark
+    public List<Object[]> sortAndClassify() {
+        return LeaderboardTableModel.rows(engine, FastFormat.getDefault());
+    }
+
+    @Benchmark
+    public LeaderboardTableModel incrementalUpdate() {
+        model.update(snapshots[next++ & (snapshots.length - 1)]);
+        return model;
+    }
+}
@@ -0,0 +1,126 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for {@link ConversionServer}. Each worker sends one request,
+ * waits for the response and records its latency; after the warm-up the recorded
+ * latencies of all workers are merged and reported as percentiles.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar currencyconverter.LoadGenerator
+ *            [url] [--threads n] [--seconds n] [--warmup n] [--post file]
+ */
+public class LoadGenerator {
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:8090/convert?amount=100&from=USD&to=EUR";
+        int threads = 8;
+        int seconds = 10;
+        int warmupSeconds = 3;
+        byte[] postBody = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--post":
+                    postBody = Files.readAllBytes(Paths.get(args[++i]));
+                    break;
+                default:
+                    url = args[i];
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = postBody == null
+                ? HttpRequest.newBuilder(URI.create(url)).GET().build()
+                : HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofByteArray(postBody)).build();
+
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        long[][] latencies = new long[threads][];
+        int[] counts = new int[threads];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                int n = 0;
+                try {
+                    while (true) {
+                        long start = System.nanoTime();
+                        if (start >= end) {
+                            break;
+                        }
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (start < warmupEnd) {
+                            continue;
+                        }
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - start;
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[worker] = samples;
+                    counts[worker] = n;
+                    done.countDown();
+                }
+            }, "load-" + t);
+            thread.start();
+        }
+        done.await();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%s, %d threads, %d s%n", url, threads, seconds);
+        System.out.printf("  requests %,d (%,.0f/s), errors %,d%n", total, total / (double) seconds, errors.get());
+        if (total > 0) {
+            System.out.printf("  p50 %,.1f us  p99 %,.1f us  p999 %,.1f us  max %,.1f us%n",
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                    all[total - 1] / 1000.0);
+        }
+    }
+
+    // Nearest-rank percentile in microseconds
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1000.0;
+    }
+}
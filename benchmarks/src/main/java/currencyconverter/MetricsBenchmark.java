@@ -0,0 +1,114 @@
+package currencyconverter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Instrumentation overhead: each operation bare and wrapped the way the app wraps it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int PAIRS = 1024;
+
+    private ConversionEngine engine;
+    private MultiConverter multi;
+    private FastFormat format;
+    private final StringBuilder output = new StringBuilder(512);
+    private String[] fromLabels;
+    private String[] toLabels;
+    private int[] fromIds;
+    private int[] toIds;
+    private double[] amounts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        engine = new ConversionEngine(CurrencyConverterApp.initializeExchangeRates());
+        multi = new MultiConverter(engine);
+        format = FastFormat.getDefault();
+        Random random = new Random(3);
+        fromLabels = new String[PAIRS];
+        toLabels = new String[PAIRS];
+        fromIds = new int[PAIRS];
+        toIds = new int[PAIRS];
+        amounts = new double[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            fromIds[i] = random.nextInt(engine.size());
+            toIds[i] = random.nextInt(engine.size());
+            fromLabels[i] = engine.label(fromIds[i]);
+            toLabels[i] = engine.label(toIds[i]);
+            amounts[i] = random.nextDouble() * 10_000;
+        }
+    }
+
+    // The formatting core of a converter request
+    private String render(int i) {
+        double rate = engine.crossRate(fromIds[i], toIds[i]);
+        output.setLength(0);
+        format.appendAmount(output, amounts[i]).append(' ').append(fromLabels[i]).append(" = ");
+        format.appendAmount(output, amounts[i] * rate).append(' ').append(toLabels[i]).append('\n');
+        format.appendFixed(output, rate, 4).append('\n');
+        format.appendFixed(output, 1 / rate, 4).append('\n');
+        return output.toString();
+    }
+
+    @Benchmark
+    public String convert() {
+        return render(next++ & (PAIRS - 1));
+    }
+
+    @Benchmark
+    public String convertTimed() {
+        int i = next++ & (PAIRS - 1);
+        long started = Metrics.CONVERT.start();
+        long allocated = Metrics.CONVERT.allocationMark(started);
+        String text = render(i);
+        Metrics.countPair(engine.code(fromIds[i]), engine.code(toIds[i]));
+        Metrics.CONVERT.stop(started, allocated);
+        return text;
+    }
+
+    @Benchmark
+    public double[] multiConvert() {
+        int i = next++ & (PAIRS - 1);
+        return multi.convertAll(amounts[i], fromIds[i]);
+    }
+
+    @Benchmark
+    public double[] multiConvertTimed() {
+        int i = next++ & (PAIRS - 1);
+        long started = Metrics.MULTI_CONVERT.start();
+        long allocated = Metrics.MULTI_CONVERT.allocationMark(started);
+        double[] results = multi.convertAll(amounts[i], fromIds[i]);
+        Metrics.MULTI_CONVERT.stop(started, allocated);
+        return results;
+    }
+
+    @Benchmark
+    public double convertCurrency() {
+        int i = next++ & (PAIRS - 1);
+        return engine.crossRate(fromIds[i], toIds[i]);
+    }
+
+    @Benchmark
+    public double convertCurrencyTimed() {
+        int i = next++ & (PAIRS - 1);
+        long started = Metrics.CONVERT_CURRENCY.start();
+        double rate = engine.crossRate(fromIds[i], toIds[i]);
+        Metrics.CONVERT_CURRENCY.stop(started, -1);
+        return rate;
+    }
+}
@@ -0,0 +1,84 @@
+package currencyconverter;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// The CONVERT ALL fan-out: one amount (or a batch of amounts) to every currency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiConvertBenchmark {
+    @Param({ "75", "170", "500" })
+    int currencyCount;
+
+    @Param({ "1", "1000" })
+    int batchSize;
+
+    private Map<String, Double> exchangeRates;
+    private ConversionEngine engine;
+    private MultiConverter multiConverter;
+    private MultiConvertTableModel model;
+    private String from;
+    private int fromId;
+    private double[] amounts;
+
+    @Setup
+    public void setUp() {
+        exchangeRates = BenchmarkCatalogs.rates(currencyCount);
+        engine = new ConversionEngine(exchangeRates);
+        multiConverter = new MultiConverter(engine);
+        model = new MultiConvertTableModel();
+        fromId = 0;
+        from = engine.label(fromId);
+
+        Random random = new Random(3);
+        amounts = new double[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            amounts[i] = random.nextDouble() * 10_000;
+        }
+    }
+
+    // The loop performMultiConversion used to run over exchangeRates.keySet()
+    @Benchmark
+    public void mapFanOut(Blackhole bh) {
+        for (double amount : amounts) {
+            for (String currency : exchangeRates.keySet()) {
+                if (!currency.equals(from)) {
+                    bh.consume(amount * (exchangeRates.get(currency) / exchangeRates.get(from)));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Object fanOut() {
+        return batchSize == 1
+                ? multiConverter.convertAll(amounts[0], fromId)
+                : multiConverter.convertAll(amounts, fromId);
+    }
+
+    // Fan-out plus the table model diff the Multi-Convert tab performs
+    @Benchmark
+    public MultiConvertTableModel fanOutIntoModel() {
+        for (double amount : amounts) {
+            model.update(engine, fromId, multiConverter.convertAll(amount, fromId));
+        }
+        return model;
+    }
+}
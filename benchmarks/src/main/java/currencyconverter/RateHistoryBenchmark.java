@@ -0,0 +1,117 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Two days of one-second snapshots with ten rates moving per tick: as-of lookups, an hour's scan, and recording
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateHistoryBenchmark {
+    private static final long START = 1_790_000_000_000L - 1_790_000_000_000L % 86_400_000L;
+    private static final int TICKS = 2 * 86_400;
+    private static final int CHANGES_PER_TICK = 10;
+    private static final int LOOKUPS = 1024;
+
+    private Path directory;
+    private RateHistory history;
+    private RateHistory recorder;
+    private String[] codes;
+    private long[] lookupTimes;
+    private String[] lookupCodes;
+    private ConversionEngine[] recordEngines;
+    private long recordTime;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rate-history-bench");
+        history = RateHistory.open(directory.resolve("lookup"));
+        Map<String, Double> rates = new LinkedHashMap<>(CurrencyConverterApp.initializeExchangeRates());
+        String[] labels = rates.keySet().toArray(new String[0]);
+        Random random = new Random(42);
+        for (int tick = 0; tick < TICKS; tick++) {
+            walk(rates, labels, random);
+            history.record(START + tick * 1000L, new ConversionEngine(rates));
+        }
+        history.flush();
+
+        codes = new String[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            codes[i] = ConversionEngine.codeOf(labels[i]);
+        }
+        lookupTimes = new long[LOOKUPS];
+        lookupCodes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupTimes[i] = START + (long) (random.nextDouble() * TICKS * 1000L);
+            lookupCodes[i] = codes[random.nextInt(codes.length)];
+        }
+
+        recorder = RateHistory.open(directory.resolve("record"));
+        recordEngines = new ConversionEngine[256];
+        for (int i = 0; i < recordEngines.length; i++) {
+            walk(rates, labels, random);
+            recordEngines[i] = new ConversionEngine(rates);
+        }
+        recordTime = START;
+    }
+
+    private static void walk(Map<String, Double> rates, String[] labels, Random random) {
+        for (int i = 0; i < CHANGES_PER_TICK; i++) {
+            String label = labels[random.nextInt(labels.length)];
+            rates.put(label, rates.get(label) * (1 + (random.nextDouble() - 0.5) * 1e-4));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        history.close();
+        recorder.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public double rateAt() {
+        int i = next++ & (LOOKUPS - 1);
+        return history.rateAt(lookupCodes[i], lookupTimes[i]);
+    }
+
+    @Benchmark
+    public void scanHour(Blackhole blackhole) {
+        int i = next++ & (LOOKUPS - 1);
+        history.scan(lookupCodes[i], lookupTimes[i], lookupTimes[i] + 3_600_000L,
+                (timestamp, rate) -> blackhole.consume(rate));
+    }
+
+    @Benchmark
+    public void record() throws IOException {
+        recordTime += 1000;
+        recorder.record(recordTime, recordEngines[next++ & (recordEngines.length - 1)]);
+    }
+}
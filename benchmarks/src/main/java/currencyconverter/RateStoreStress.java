@@ -0,0 +1,196 @@
+package currencyconverter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded consistency check for {@link RateStore}. Currencies come in pairs whose
+ * rates a writer always moves together, keeping {@code rate(2k + 1) == rate(2k) + 1}; each
+ * write bumps one pair by 1 with a compare-and-publish retry loop. Readers hammer
+ * {@code current()} and check, on every snapshot they see:
+ * <ul>
+ * <li>both rates of every pair come from the same write, with equal rate versions;</li>
+ * <li>cross rates match the rates they were built from;</li>
+ * <li>versions never go backwards, no rate version exceeds its snapshot's version, and a
+ * rate changes exactly when its rate version does;</li>
+ * </ul>
+ * Listeners must see strictly increasing versions, and at the end every successful write
+ * must be reflected in the final rates (no lost updates). Exits with status 1 on any
+ * violation.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar currencyconverter.RateStoreStress
+ *            [--readers n] [--writers n] [--seconds n] [--currencies n]
+ */
+public class RateStoreStress {
+    private static final int MAX_REPORTED = 10;
+
+    private static final AtomicLong violations = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int readers = 4;
+        int writers = 2;
+        int seconds = 5;
+        int currencies = 64;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--readers":
+                    readers = Integer.parseInt(args[++i]);
+                    break;
+                case "--writers":
+                    writers = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--currencies":
+                    currencies = Integer.parseInt(args[++i]) & ~1;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        // Zero-padded, so ID order is numeric order
+        String[] labels = new String[currencies];
+        double[] initial = new double[currencies];
+        for (int id = 0; id < currencies; id++) {
+            labels[id] = String.format("S%03d (STRESS %d)", id, id);
+            initial[id] = 1 + (id & 1);
+        }
+        RateStore store = new RateStore(new ConversionEngine(labels, initial.clone()));
+
+        AtomicLong lastDelivered = new AtomicLong();
+        store.addListener(engine -> {
+            long previous = lastDelivered.getAndSet(engine.version());
+            if (engine.version() <= previous) {
+                violation("listener saw version " + engine.version() + " after " + previous);
+            }
+        });
+
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] writesPerPair = new long[writers][currencies / 2];
+        LongAdder retries = new LongAdder();
+        LongAdder reads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(readers + writers);
+
+        for (int w = 0; w < writers; w++) {
+            long[] writes = writesPerPair[w];
+            start("stress-writer-" + w, done, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    int pair = random.nextInt(writes.length);
+                    while (true) {
+                        ConversionEngine previous = store.current();
+                        double[] rates = new double[previous.size()];
+                        for (int id = 0; id < rates.length; id++) {
+                            rates[id] = previous.rate(id);
+                        }
+                        rates[2 * pair] += 1;
+                        rates[2 * pair + 1] += 1;
+                        if (store.compareAndPublish(previous, new ConversionEngine(labels, rates))) {
+                            break;
+                        }
+                        retries.increment();
+                    }
+                    writes[pair]++;
+                }
+            });
+        }
+
+        for (int r = 0; r < readers; r++) {
+            start("stress-reader-" + r, done, () -> {
+                double[] seenRates = new double[labels.length];
+                long[] seenVersions = new long[labels.length];
+                long lastVersion = 0;
+                long count = 0;
+                while (System.nanoTime() < end) {
+                    ConversionEngine engine = store.current();
+                    long version = engine.version();
+                    if (version < lastVersion) {
+                        violation("version went back from " + lastVersion + " to " + version);
+                    }
+                    lastVersion = version;
+                    for (int id = 0; id < labels.length; id += 2) {
+                        checkPair(engine, id);
+                    }
+                    for (int id = 0; id < labels.length; id++) {
+                        checkMonotonic(engine, id, seenRates, seenVersions);
+                    }
+                    count++;
+                }
+                reads.add(count);
+            });
+        }
+        done.await();
+
+        ConversionEngine last = store.current();
+        long writes = 0;
+        for (int pair = 0; pair < currencies / 2; pair++) {
+            long expected = 0;
+            for (long[] perWriter : writesPerPair) {
+                expected += perWriter[pair];
+            }
+            writes += expected;
+            if (last.rate(2 * pair) != initial[2 * pair] + expected) {
+                violation("pair " + pair + " lost updates: rate " + last.rate(2 * pair)
+                        + ", expected " + (initial[2 * pair] + expected));
+            }
+        }
+
+        System.out.printf("%d readers, %d writers, %d currencies, %d s%n", readers, writers, currencies, seconds);
+        System.out.printf("  snapshots read %,d (%,.0f/s), writes %,d (%,.0f/s), CAS retries %,d%n",
+                reads.sum(), reads.sum() / (double) seconds, writes, writes / (double) seconds, retries.sum());
+        System.out.printf("  final version %,d, violations %d%n", last.version(), violations.get());
+        System.exit(violations.get() == 0 ? 0 : 1);
+    }
+
+    private static void checkPair(ConversionEngine engine, int id) {
+        double low = engine.rate(id);
+        double high = engine.rate(id + 1);
+        if (high != low + 1) {
+            violation("torn pair at v" + engine.version() + ": " + low + " / " + high);
+        }
+        if (engine.rateVersion(id) != engine.rateVersion(id + 1)) {
+            violation("pair versions differ at v" + engine.version());
+        }
+        if (engine.rateVersion(id) > engine.version()) {
+            violation("rate version " + engine.rateVersion(id) + " ahead of snapshot v" + engine.version());
+        }
+        if (engine.crossRate(id, id + 1) != high / low) {
+            violation("cross rate does not match rates at v" + engine.version());
+        }
+    }
+
+    private static void checkMonotonic(ConversionEngine engine, int id, double[] seenRates, long[] seenVersions) {
+        double rate = engine.rate(id);
+        long rateVersion = engine.rateVersion(id);
+        boolean sameVersion = rateVersion == seenVersions[id];
+        if (rateVersion < seenVersions[id] || rate < seenRates[id] || sameVersion != (rate == seenRates[id])) {
+            if (seenVersions[id] != 0) {
+                violation("currency " + id + " went from " + seenRates[id] + "@v" + seenVersions[id]
+                        + " to " + rate + "@v" + rateVersion);
+            }
+        }
+        seenRates[id] = rate;
+        seenVersions[id] = rateVersion;
+    }
+
+    private static void start(String name, CountDownLatch done, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } finally {
+                done.countDown();
+            }
+        }, name);
+        thread.start();
+    }
+
+    private static void violation(String message) {
+        if (violations.incrementAndGet() <= MAX_REPORTED) {
+            System.err.println("VIOLATION: " + message);
+        }
+    }
+}
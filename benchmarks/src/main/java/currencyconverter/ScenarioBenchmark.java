@@ -0,0 +1,142 @@
+package currencyconverter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Revaluing a portfolio under scenarioCount shocked rate sets: sparse deltas over the netted
+// exposures, the same from scenario text, and a shocked engine per scenario as the baseline
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScenarioBenchmark {
+    private static final String[] EMERGING = { "BRL", "INR", "MXN", "PKR", "EGP", "ZAR", "NGN", "IDR" };
+
+    @Param({ "1000", "10000" })
+    int scenarioCount;
+
+    @Param({ "1000" })
+    int positionCount;
+
+    private ConversionEngine engine;
+    private int reportId;
+    private double[] amounts;
+    private int[] currencyIds;
+    private ScenarioEngine scenarioEngine;
+    private ScenarioEngine.Block[] blocks;
+    private String scenarioText;
+    // Shocks per scenario for the baseline: currency IDs and value changes
+    private int[][] shockIds;
+    private double[][] shockChanges;
+
+    @Setup
+    public void setUp() {
+        engine = DefaultRates.engine();
+        reportId = engine.idOfCode("USD");
+        Random random = new Random(11);
+        amounts = new double[positionCount];
+        currencyIds = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            amounts[i] = (random.nextDouble() - 0.3) * 1_000_000;
+            currencyIds[i] = random.nextInt(engine.size());
+        }
+        scenarioEngine = new ScenarioEngine(engine, reportId, amounts, currencyIds);
+
+        // Emerging markets down 0-20%, plus two random currencies moved up to 10% either way
+        shockIds = new int[scenarioCount][];
+        shockChanges = new double[scenarioCount][];
+        StringBuilder text = new StringBuilder();
+        for (int s = 0; s < scenarioCount; s++) {
+            int[] ids = new int[EMERGING.length + 2];
+            double[] changes = new double[ids.length];
+            double emerging = -random.nextDouble() * 0.2;
+            for (int i = 0; i < EMERGING.length; i++) {
+                ids[i] = engine.idOfCode(EMERGING[i]);
+                changes[i] = emerging;
+            }
+            for (int i = EMERGING.length; i < ids.length; i++) {
+                ids[i] = random.nextInt(engine.size());
+                changes[i] = random.nextDouble() * 0.2 - 0.1;
+            }
+            shockIds[s] = ids;
+            shockChanges[s] = changes;
+            text.append('s').append(s).append(':');
+            for (int i = 0; i < ids.length; i++) {
+                text.append(' ').append(engine.code(ids[i])).append('=').append(changes[i]);
+            }
+            text.append('\n');
+        }
+        scenarioText = text.toString();
+
+        int blockCount = (scenarioCount + ScenarioEngine.BLOCK_SCENARIOS - 1) / ScenarioEngine.BLOCK_SCENARIOS;
+        blocks = new ScenarioEngine.Block[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            blocks[b] = new ScenarioEngine.Block(ScenarioEngine.BLOCK_SCENARIOS, engine.size());
+            for (int s = b * ScenarioEngine.BLOCK_SCENARIOS; s < Math.min(scenarioCount,
+                    (b + 1) * ScenarioEngine.BLOCK_SCENARIOS); s++) {
+                blocks[b].begin("s" + s);
+                for (int i = 0; i < shockIds[s].length; i++) {
+                    blocks[b].shock(shockIds[s][i], shockChanges[s][i]);
+                }
+                blocks[b].end();
+            }
+        }
+    }
+
+    @Benchmark
+    public void sparseDeltas(Blackhole bh) {
+        for (ScenarioEngine.Block block : blocks) {
+            scenarioEngine.evaluate(block);
+            bh.consume(block.pnl(block.size() - 1));
+        }
+    }
+
+    // Parse, evaluate and summarise, streaming from scenario text
+    @Benchmark
+    public ScenarioEngine.Summary fromText() throws IOException {
+        return scenarioEngine.run(new ScenarioEngine.ScenarioReader(engine, new StringReader(scenarioText)), null);
+    }
+
+    // A shocked copy of the rate table and engine per scenario, every position converted
+    @Benchmark
+    public double shockedEnginePerScenario() {
+        String[] labels = engine.labels();
+        double base = 0;
+        for (int i = 0; i < positionCount; i++) {
+            base += engine.convert(amounts[i], currencyIds[i], reportId);
+        }
+        double worst = 0;
+        for (int s = 0; s < scenarioCount; s++) {
+            double[] rates = new double[engine.size()];
+            for (int id = 0; id < rates.length; id++) {
+                rates[id] = engine.rate(id);
+            }
+            for (int i = 0; i < shockIds[s].length; i++) {
+                rates[shockIds[s][i]] = engine.rate(shockIds[s][i]) / (1 + shockChanges[s][i]);
+            }
+            ConversionEngine shocked = new ConversionEngine(labels, rates);
+            double value = 0;
+            for (int i = 0; i < positionCount; i++) {
+                value += shocked.convert(amounts[i], currencyIds[i], reportId);
+            }
+            worst = Math.min(worst, value - base);
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Builds an AppCDS archive of the classes loaded during one training run (JDK 13+).
+# With no arguments the run is the desktop app, which exits as soon as its first frame
+# is painted (needs a display); otherwise the arguments select a mode to train on, e.g.
+#   scripts/appcds.sh --batch ledger.csv out.csv --to EUR
+# Start from the archive with
+#   java -XX:SharedArchiveFile=app/target/currency-converter.jsa -jar app/target/currency-converter.jar
+set -e
+cd "$(dirname "$0")/.."
+JAR=app/target/currency-converter.jar
+ARCHIVE=${CURRENCY_CDS_ARCHIVE:-app/target/currency-converter.jsa}
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR not found; run mvn package first" >&2
+    exit 1
+fi
+rm -f "$ARCHIVE"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dcurrency.startup.exit=true -jar "$JAR" "$@"
+echo "Wrote $ARCHIVE"